@@ -0,0 +1,105 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading and saving synthetic configs of different sizes, in memory and through files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigIoBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int size;
+
+    private Headless.ListConfig config;
+
+    private IntConfigProperty first;
+
+    private String json;
+
+    private Path directory;
+
+    private Path file;
+
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        config = Headless.ListConfig.synthetic(size);
+        first = (IntConfigProperty) config.iterator().next();
+        StringWriter writer = new StringWriter();
+        config.saveTo(writer, null);
+        json = writer.toString();
+        directory = Files.createTempDirectory("ayusimpleconfig-benchmark");
+        file = directory.resolve("config.json");
+        Files.writeString(file, json);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public String saveToWriter() throws IOException {
+        StringWriter writer = new StringWriter();
+        config.saveTo(writer, null);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public Headless.ListConfig loadFromReader() throws IOException {
+        config.loadFrom(new StringReader(json), null);
+        return config;
+    }
+
+    /**
+     * Changes one value before saving, so the save cannot be skipped.
+     */
+    @Benchmark
+    public Path saveToFile() {
+        first.setValue(counter++ & 0xFFFF);
+        config.saveTo(file, null);
+        return file;
+    }
+
+    /**
+     * Saves without changes, which should be skipped.
+     */
+    @Benchmark
+    public Path saveUnchangedToFile() {
+        config.saveTo(file, null);
+        return file;
+    }
+
+    @Benchmark
+    public Headless.ListConfig loadFromFile() {
+        config.loadFrom(file, null);
+        return config;
+    }
+}
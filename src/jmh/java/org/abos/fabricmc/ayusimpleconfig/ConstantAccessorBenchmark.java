@@ -0,0 +1,55 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the plain accessors with the constant handles of {@link ConfigProperty#getConstantHandle()}.
+ * The handles only fold if they are held in <code>static final</code> fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstantAccessorBenchmark {
+
+    private static final IntConfigProperty INT = new IntConfigProperty("constant_int", "benchmark", 1000, 0, Integer.MAX_VALUE);
+
+    private static final BooleanConfigProperty BOOLEAN = new BooleanConfigProperty("constant_boolean", "benchmark", true);
+
+    private static final MethodHandle INT_HANDLE = INT.getConstantHandle();
+
+    private static final MethodHandle BOOLEAN_HANDLE = BOOLEAN.getConstantHandle();
+
+    @Benchmark
+    public int plainInt() {
+        return INT.getInt() * 31 + 7;
+    }
+
+    @Benchmark
+    public int constantInt() throws Throwable {
+        return (int) INT_HANDLE.invokeExact() * 31 + 7;
+    }
+
+    @Benchmark
+    public int plainBoolean() {
+        return BOOLEAN.getBoolean() ? 1 : 0;
+    }
+
+    @Benchmark
+    public int constantBoolean() throws Throwable {
+        return (boolean) BOOLEAN_HANDLE.invokeExact() ? 1 : 0;
+    }
+}
@@ -0,0 +1,135 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading property values, cached and rule-backed, from one and from several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyReadBenchmark {
+
+    private final IntConfigProperty cachedInt = new IntConfigProperty("cached_int", "benchmark", 1000, 0, Integer.MAX_VALUE);
+
+    private final BooleanConfigProperty cachedBoolean = new BooleanConfigProperty("cached_boolean", "benchmark", true);
+
+    private final PercentageConfigProperty percentage = new PercentageConfigProperty("percentage", "benchmark", 42, 0, 100);
+
+    private final Headless.VanillaIntProperty ruleInt = new Headless.VanillaIntProperty();
+
+    private final Headless.VanillaBooleanProperty ruleBoolean = new Headless.VanillaBooleanProperty();
+
+    private GameRules rules;
+
+    private World world;
+
+    private Headless.ListConfig config;
+
+    private FlagMask booleans;
+
+    @Setup
+    public void setUp() {
+        Headless.bootstrap();
+        rules = new GameRules();
+        world = Headless.world(rules);
+        config = new Headless.ListConfig(List.of(cachedInt, cachedBoolean, percentage, ruleInt, ruleBoolean));
+        config.initialize();
+        booleans = config.mask(cachedBoolean, ruleBoolean);
+    }
+
+    @Benchmark
+    public int cachedIntBoxed() {
+        return cachedInt.getValue();
+    }
+
+    @Benchmark
+    public int cachedInt() {
+        return cachedInt.getInt();
+    }
+
+    @Benchmark
+    public boolean cachedBoolean() {
+        return cachedBoolean.getBoolean();
+    }
+
+    @Benchmark
+    public boolean twoBooleans() {
+        return cachedBoolean.getBoolean() && ruleBoolean.getBoolean();
+    }
+
+    @Benchmark
+    public boolean twoBooleansMasked() {
+        return config.allOf(booleans);
+    }
+
+    @Benchmark
+    public double percentageDecimal() {
+        return percentage.getDecimalValue(world);
+    }
+
+    @Benchmark
+    public int percentageApplyTo() {
+        return percentage.applyTo(1000, world);
+    }
+
+    /**
+     * The rule lookup every read used to do, as a baseline for {@link #ruleBackedInt()}.
+     */
+    @Benchmark
+    public int ruleLookup() {
+        return world.getGameRules().get(GameRules.RANDOM_TICK_SPEED).get();
+    }
+
+    @Benchmark
+    public int ruleBackedIntBoxed() {
+        return ruleInt.getValue(world);
+    }
+
+    @Benchmark
+    public int ruleBackedInt() {
+        return ruleInt.getInt(world);
+    }
+
+    @Benchmark
+    public boolean ruleBackedBoolean() {
+        return ruleBoolean.getBoolean(world);
+    }
+
+    @Benchmark
+    public int snapshotRead() {
+        ConfigSnapshot snapshot = config.snapshot();
+        return snapshot.getInt(cachedInt) + (snapshot.getBoolean(cachedBoolean) ? 1 : 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int snapshotReadContended() {
+        ConfigSnapshot snapshot = config.snapshot();
+        return snapshot.getInt(cachedInt) + (snapshot.getBoolean(cachedBoolean) ? 1 : 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int ruleBackedIntContended() {
+        return ruleInt.getInt(world);
+    }
+}
@@ -1,108 +1,1360 @@
 package org.abos.fabricmc.ayusimpleconfig;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.world.GameRules;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * Base class to build a config from. Handles initializing of rules as well as saving and loading the config.
+ * After initialization, every change of a cached value publishes a new {@link ConfigSnapshot}, see {@link #snapshot()}.
  */
 public abstract class AbstractConfig implements Iterable<ConfigProperty<?, ? extends GameRules.Rule<?>>> {
 
     public final static Logger LOGGER = LoggerFactory.getLogger("ayusimpleconfig");
 
+    /**
+     * marks values that were present but couldn't be read in the arrays of {@link #readValues(Reader)}
+     */
+    static final Object UNREADABLE = new Object();
+
+    private static final WorldSnapshot[] NO_WORLD_SNAPSHOTS = new WorldSnapshot[0];
+
+    /**
+     * the properties of this config in iteration order, <code>null</code> until {@link #initialize()} is called
+     */
+    private ConfigProperty<?, ?>[] properties;
+
+    /**
+     * the properties of this config by name, filled by {@link #initialize()}
+     */
+    private final Map<String, ConfigProperty<?, ?>> propertiesByName = new HashMap<>();
+
+    /**
+     * the cached values of all int properties, <code>null</code> until {@link #initialize()} is called
+     * @see IntConfigProperty
+     */
+    private int[] intValues;
+
+    /**
+     * the cached values of all boolean properties as a bitset, <code>null</code> until {@link #initialize()} is called
+     * @see BooleanConfigProperty
+     */
+    private long[] flagWords;
+
+    /**
+     * the latest published snapshot, <code>null</code> until {@link #initialize()} is called
+     */
+    private volatile ConfigSnapshot snapshot;
+
+    /**
+     * how many bulk updates are currently running, snapshots are only published when this is <code>0</code>
+     */
+    private int updateDepth;
+
+    /**
+     * the indices of the properties that changed since the latest snapshot was published
+     */
+    private final BitSet changed = new BitSet();
+
+    /**
+     * the asynchronous saves that haven't started yet by file, also guards {@link #lastSave}
+     */
+    private final Map<Path, PendingSave> pendingSaves = new HashMap<>();
+
+    /**
+     * the future of the asynchronous save requested last
+     */
+    private CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null);
+
+    /**
+     * guards writing files, so synchronous and asynchronous saves don't share a temporary file at the same time
+     */
+    private final Object fileLock = new Object();
+
+    /**
+     * what was last saved to or loaded from each file, guarded by {@link #fileLock}
+     */
+    private final Map<Path, FileState> fileStates = new HashMap<>();
+
+    /**
+     * if parsed values are cached in a binary file next to each config file
+     * @see #setBinaryCache(boolean)
+     */
+    private volatile boolean binaryCache;
+
+    /**
+     * if reads return the values captured at the start of the tick
+     * @see #setTickSnapshots(boolean)
+     */
+    private volatile boolean tickSnapshots;
+
+    /**
+     * the snapshots captured for the current tick, <code>null</code> if tick snapshots are disabled or no tick
+     * started since, so reads only pay a single volatile read if tick snapshots aren't used.
+     * Only written on the server thread.
+     */
+    private volatile TickState tickState;
+
+    /**
+     * the listeners of this config and its properties
+     */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * the snapshot the listeners were last notified of, <code>null</code> until the first listener subscribes,
+     * guarded by {@link #listeners}
+     */
+    private ConfigSnapshot notified;
+
+    /**
+     * the values and dirty properties from before the first values were received from a server,
+     * <code>null</code> if no values were received since the last restore
+     * @see #restoreLocalValues()
+     */
+    private LocalValues localValues;
+
+    /**
+     * the journal changes are appended to, <code>null</code> unless enabled
+     * @see #enableJournal(Path, long)
+     */
+    private volatile ConfigJournal journal;
+
     /**
      * Call this method only once and from your {@link net.fabricmc.api.ModInitializer}.
+     * The cached values of int and boolean properties are moved into arrays owned by this config,
+     * so properties declared next to each other are stored next to each other.
      */
     public void initialize() {
+        List<ConfigProperty<?, ?>> list = new ArrayList<>();
+        int ints = 0;
+        int flags = 0;
         for (ConfigProperty<?, ?> property : this) {
+            property.bind(this, list.size());
+            list.add(property);
+            propertiesByName.put(property.getName(), property);
+            if (property instanceof IntConfigProperty) {
+                ints++;
+            } else if (property instanceof BooleanConfigProperty) {
+                flags++;
+            }
             if (property.isWithGameRule()) {
                 property.registerRule();
             }
         }
+        intValues = new int[ints];
+        flagWords = new long[(flags + 63) >>> 6];
+        ints = 0;
+        flags = 0;
+        for (ConfigProperty<?, ?> property : list) {
+            if (property instanceof IntConfigProperty intProperty) {
+                intProperty.pack(intValues, ints++);
+            } else if (property instanceof BooleanConfigProperty booleanProperty) {
+                booleanProperty.pack(flagWords, flags++);
+            }
+        }
+        properties = list.toArray(new ConfigProperty<?, ?>[0]);
+        Object[] values = new Object[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            values[i] = properties[i].getCachedValue();
+        }
+        synchronized (this) {
+            changed.clear();
+            snapshot = new ConfigSnapshot(this, 0, values);
+        }
+    }
+
+    /**
+     * Returns the property with the given name in constant time, e.g. for commands or a config screen.
+     * @param name the name of the property
+     * @return the property or <code>null</code> if this config has no property with that name
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    @Nullable
+    public ConfigProperty<?, ?> getProperty(@NotNull String name) throws IllegalStateException {
+        getProperties();
+        return propertiesByName.get(name);
+    }
+
+    /**
+     * Returns the namespace of this config, e.g. its section in a {@link SharedConfigStore}.
+     * By default this is the namespace of the first property that has one.
+     * @return the namespace of this config
+     * @throws IllegalStateException If no property has a namespace. In this case you need to override this method
+     *                               in your subclass.
+     */
+    @NotNull
+    public String getNamespace() throws IllegalStateException {
+        for (ConfigProperty<?, ?> property : this) {
+            if (property.getNamespace() != null) {
+                return property.getNamespace();
+            }
+        }
+        throw new IllegalStateException("Config " + getClass().getName() + " has no namespace!");
+    }
+
+    /**
+     * Returns the latest snapshot of all cached values. This method is safe to call from any thread and costs a single
+     * volatile read, so worker threads should use it instead of reading the properties directly.
+     * @return the current snapshot
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    @NotNull
+    public ConfigSnapshot snapshot() throws IllegalStateException {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Config hasn't been initialized yet!");
+        }
+        return current;
+    }
+
+    /**
+     * Called by a property of this config whenever its cached value changed.
+     * @param property the changed property
+     */
+    synchronized void onPropertyChanged(@NotNull ConfigProperty<?, ?> property) {
+        property.setDirty(true);
+        changed.set(property.getIndex());
+        if (updateDepth == 0) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Enables journal mode with a threshold of 64 KiB.
+     * @see #enableJournal(Path, long)
+     */
+    public void enableJournal(Path file) throws IOException, IllegalStateException {
+        enableJournal(file, 64 * 1024);
+    }
+
+    /**
+     * Enables journal mode for the specified config file: every published change is appended as a compact record to
+     * a journal next to the file, named like the file with <code>.journal</code> appended, and forced to disk
+     * in the background.
+     * Once the journal grows past the threshold, it is folded into the config file in the background.
+     * Loading from the file replays the journal on top of it, and every save to the file folds the journal into it.
+     * @param file the config file, usually the one the config is loaded from and saved to
+     * @param threshold the size of the journal in bytes above which it is folded into the file
+     * @throws IOException           If an existing journal cannot be accessed.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    public void enableJournal(Path file, long threshold) throws IOException, IllegalStateException {
+        getProperties();
+        ConfigJournal previous;
+        synchronized (this) {
+            previous = journal;
+            journal = new ConfigJournal(file, threshold, () -> compactJournal(file));
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Enables or disables the binary cache. If enabled, the parsed values of every config file are cached in a binary
+     * file next to it, named like the file with <code>.bin</code> appended. As long as the config file's size,
+     * modification time and hash match the cache, loading reads the cache instead of parsing the JSON.
+     * Saving updates the cache as well.
+     * @param enabled if the binary cache should be used
+     */
+    public void setBinaryCache(boolean enabled) {
+        binaryCache = enabled;
+    }
+
+    /**
+     * @return <code>true</code> if the binary cache is used
+     * @see #setBinaryCache(boolean)
+     */
+    public boolean isBinaryCache() {
+        return binaryCache;
+    }
+
+    /**
+     * Disables journal mode. The journal stays on disk until the config file is saved or loaded again
+     * with journal mode enabled.
+     * @throws IOException If closing the journal fails.
+     * @see #enableJournal(Path, long)
+     */
+    public void disableJournal() throws IOException {
+        ConfigJournal previous;
+        synchronized (this) {
+            previous = journal;
+            journal = null;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Enables or disables tick snapshots. If enabled, all values are captured at the start of each server tick,
+     * and again at the start of each world tick for worlds with their own game rules. Until the next tick,
+     * all reads of the properties return the captured values without looking up any rule,
+     * so the values are stable within a tick even if they are changed meanwhile.
+     * @param enabled if tick snapshots should be used
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #getTickSnapshot(World)
+     */
+    public void setTickSnapshots(boolean enabled) throws IllegalStateException {
+        getProperties();
+        tickSnapshots = enabled;
+        clearTickSnapshots();
+        if (enabled) {
+            TickSnapshots.track(this);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if tick snapshots are used
+     * @see #setTickSnapshots(boolean)
+     */
+    public boolean isTickSnapshots() {
+        return tickSnapshots;
+    }
+
+    /**
+     * Returns the snapshot captured at the start of the current server tick.
+     * @return the tick snapshot or the current {@link #snapshot()} if tick snapshots are disabled or no tick started yet
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #setTickSnapshots(boolean)
+     */
+    @NotNull
+    public ConfigSnapshot getTickSnapshot() throws IllegalStateException {
+        TickState state = tickState;
+        return state == null ? snapshot() : state.server();
+    }
+
+    /**
+     * Returns the snapshot captured at the start of the current tick of the given world, which differs from
+     * {@link #getTickSnapshot()} only if the world has its own game rules.
+     * @param world the world, can be <code>null</code>
+     * @return the tick snapshot or the current {@link #snapshot()} if tick snapshots are disabled or no tick started yet
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #setTickSnapshots(boolean)
+     */
+    @NotNull
+    public ConfigSnapshot getTickSnapshot(@Nullable World world) throws IllegalStateException {
+        ConfigSnapshot current = tickSnapshot(world);
+        return current == null ? snapshot() : current;
+    }
+
+    /**
+     * @param world the world to read for, can be <code>null</code>
+     * @return the tick snapshot of the world or the server or <code>null</code> if there is none
+     */
+    @Nullable
+    ConfigSnapshot tickSnapshot(@Nullable World world) {
+        TickState state = tickState;
+        if (state == null) {
+            return null;
+        }
+        if (world != null) {
+            for (WorldSnapshot captured : state.worlds()) {
+                if (captured.world() == world) {
+                    return captured.snapshot();
+                }
+            }
+        }
+        return state.server();
+    }
+
+    /**
+     * Captures the snapshot of the server tick, if tick snapshots are enabled. The snapshots of the previous
+     * world ticks are dropped, so until a world's tick starts, reads for it return the server's snapshot.
+     * @param server the ticking server
+     */
+    void captureTickSnapshot(@NotNull MinecraftServer server) {
+        if (!tickSnapshots) {
+            return;
+        }
+        syncWithRules(server.getOverworld());
+        tickState = new TickState(snapshot(), NO_WORLD_SNAPSHOTS);
+    }
+
+    /**
+     * Captures the snapshot of a world tick, if tick snapshots are enabled. Worlds sharing the server's game rules
+     * keep using the snapshot of the server tick, other worlds get their own rule values on top of it.
+     * @param world the ticking world
+     */
+    void captureTickSnapshot(@NotNull ServerWorld world) {
+        TickState state = tickState;
+        if (!tickSnapshots || state == null || world.getGameRules() == world.getServer().getGameRules()) {
+            return;
+        }
+        ConfigSnapshot server = state.server();
+        Object[] values = null;
+        for (int i = 0; i < properties.length; i++) {
+            if (!properties[i].isWithGameRule()) {
+                continue;
+            }
+            Object value = properties[i].getRuleValue(world);
+            if (value != null && !value.equals(server.get(properties[i]))) {
+                if (values == null) {
+                    values = new Object[properties.length];
+                    for (int j = 0; j < properties.length; j++) {
+                        values[j] = server.get(properties[j]);
+                    }
+                }
+                values[i] = value;
+            }
+        }
+        if (values == null) {
+            return;
+        }
+        WorldSnapshot[] worlds = Arrays.copyOf(state.worlds(), state.worlds().length + 1);
+        worlds[worlds.length - 1] = new WorldSnapshot(world, new ConfigSnapshot(this, server.getVersion(), values));
+        tickState = new TickState(server, worlds);
+    }
+
+    /**
+     * Drops all tick snapshots, reads return the cached values again until the next tick.
+     */
+    void clearTickSnapshots() {
+        tickState = null;
+    }
+
+    /**
+     * Subscribes a listener to changes of this config, notified on the server thread.
+     * @see #subscribe(Consumer, Executor)
+     */
+    public void subscribe(@NotNull Consumer<? super ConfigSnapshot> listener) throws IllegalStateException {
+        subscribe(listener, null);
+    }
+
+    /**
+     * Subscribes a listener to changes of this config, no matter if they come from setting a value, loading or
+     * a game rule. Changes are coalesced: the listener is called at most once per tick with the newest snapshot,
+     * and only if a value actually differs from the one it was last notified of.
+     * @param listener the listener
+     * @param executor Runs the notifications. Can be <code>null</code>, then the listener is called directly
+     *                 at the end of the tick on the server thread, or on the client thread if there is no server.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #unsubscribe(Consumer)
+     * @see ConfigProperty#subscribe(Consumer, Executor)
+     */
+    public void subscribe(@NotNull Consumer<? super ConfigSnapshot> listener, @Nullable Executor executor) throws IllegalStateException {
+        addListener(null, listener, executor);
+    }
+
+    /**
+     * Unsubscribes a listener from changes of this config.
+     * @param listener a listener previously passed to {@link #subscribe(Consumer, Executor)}
+     */
+    public void unsubscribe(@NotNull Consumer<? super ConfigSnapshot> listener) {
+        removeListener(null, listener);
+    }
+
+    /**
+     * Adds a listener of this config or one of its properties.
+     * @param property the property to listen to or <code>null</code> to listen to the whole config
+     * @param listener the listener, receiving the new value of the property or the new snapshot
+     * @param executor the executor to notify on or <code>null</code>
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    @SuppressWarnings("unchecked")
+    void addListener(@Nullable ConfigProperty<?, ?> property, @NotNull Consumer<?> listener, @Nullable Executor executor) throws IllegalStateException {
+        ConfigSnapshot current = snapshot();
+        synchronized (listeners) {
+            if (notified == null) {
+                notified = current;
+            }
+            listeners.add(new Listener(property, (Consumer<Object>) Objects.requireNonNull(listener), executor));
+        }
+        ConfigListeners.track(this);
+    }
+
+    /**
+     * Removes all registrations of a listener of this config or one of its properties.
+     * @param property the property listened to or <code>null</code> for the whole config
+     * @param listener the listener
+     */
+    void removeListener(@Nullable ConfigProperty<?, ?> property, @NotNull Consumer<?> listener) {
+        listeners.removeIf(registered -> registered.property == property && registered.consumer == listener);
+    }
+
+    /**
+     * Notifies the listeners of the values that changed since they were last notified.
+     * @see ConfigListeners#dispatch()
+     */
+    void notifyListeners() {
+        ConfigSnapshot previous;
+        ConfigSnapshot current = snapshot;
+        synchronized (listeners) {
+            previous = notified;
+            if (previous == null || previous == current) {
+                return;
+            }
+            notified = current;
+        }
+        boolean changed = false;
+        for (ConfigProperty<?, ?> property : properties) {
+            if (!current.get(property).equals(previous.get(property))) {
+                changed = true;
+                break;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            if (listener.property == null) {
+                listener.deliver(current);
+            } else {
+                Object value = current.get(listener.property);
+                if (!value.equals(previous.get(listener.property))) {
+                    listener.deliver(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a mask of the given boolean properties to test them at once with {@link #allOf(FlagMask)}
+     * or {@link #anyOf(FlagMask)}. Create masks once and keep them.
+     * @param properties boolean properties of this config
+     * @return the mask
+     * @throws IllegalArgumentException If a property doesn't belong to this config.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    @NotNull
+    public FlagMask mask(@NotNull BooleanConfigProperty... properties) throws IllegalArgumentException, IllegalStateException {
+        getProperties();
+        long[] bits = new long[flagWords.length];
+        for (BooleanConfigProperty property : properties) {
+            if (property.getConfig() != this) {
+                throw new IllegalArgumentException(property.getName()+" doesn't belong to this config!");
+            }
+            bits[property.getBit() >>> 6] |= 1L << property.getBit();
+        }
+        return new FlagMask(this, bits);
+    }
+
+    /**
+     * Tests if all properties of the mask are <code>true</code>. Like {@link BooleanConfigProperty#getBoolean()},
+     * this reads the cached values, which are kept up to date by the rules' change callbacks.
+     * @param mask a mask of this config
+     * @return <code>true</code> if all masked values are <code>true</code>
+     * @throws IllegalArgumentException If the mask belongs to another config.
+     */
+    public boolean allOf(@NotNull FlagMask mask) throws IllegalArgumentException {
+        long[] bits = mask.bits(this);
+        for (int i = mask.first(); i < bits.length; i++) {
+            if ((flagWords[i] & bits[i]) != bits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests if any property of the mask is <code>true</code>.
+     * @param mask a mask of this config
+     * @return <code>true</code> if at least one masked value is <code>true</code>
+     * @throws IllegalArgumentException If the mask belongs to another config.
+     * @see #allOf(FlagMask)
+     */
+    public boolean anyOf(@NotNull FlagMask mask) throws IllegalArgumentException {
+        long[] bits = mask.bits(this);
+        for (int i = mask.first(); i < bits.length; i++) {
+            if ((flagWords[i] & bits[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts a batch to set several values at once. All values are validated before any is set and the changes
+     * are published together.
+     * @return a new batch
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    @NotNull
+    public ConfigBatch batch() throws IllegalStateException {
+        getProperties();
+        return new ConfigBatch(this);
+    }
+
+    /**
+     * Enables or disables counting how often each property of this config is read, resetting all counts.
+     * Counting is cheap but not free, so it's disabled by default.
+     * @param enabled if reads should be counted
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #getHottestProperties(int)
+     */
+    public void setReadCounting(boolean enabled) throws IllegalStateException {
+        for (ConfigProperty<?, ?> property : getProperties()) {
+            property.setReadCounting(enabled);
+        }
+    }
+
+    /**
+     * Returns the properties read most often since read counting was enabled, e.g. to find code polling the config
+     * in tight loops.
+     * @param limit the maximum number of properties to return
+     * @return the properties with the highest read counts, in descending order of their counts
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #setReadCounting(boolean)
+     * @see ConfigProperty#getReadCount()
+     */
+    @NotNull
+    public List<ConfigProperty<?, ?>> getHottestProperties(int limit) throws IllegalStateException {
+        ConfigProperty<?, ?>[] properties = getProperties();
+        long[] counts = new long[properties.length];
+        Integer[] order = new Integer[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            counts[i] = properties[i].getReadCount();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+        List<ConfigProperty<?, ?>> hottest = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, order.length) && counts[order[i]] > 0; i++) {
+            hottest.add(properties[order[i]]);
+        }
+        return hottest;
+    }
+
+    /**
+     * Returns how often the values of this config have been changed. Changes made during a single load are
+     * counted once. This is the version of the current {@link #snapshot()}.
+     * @return the modification count
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    public long getModificationCount() throws IllegalStateException {
+        return snapshot().getVersion();
+    }
+
+    /**
+     * @return <code>true</code> if any value changed since this config was last saved to or loaded from a file
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see ConfigProperty#isDirty()
+     */
+    public synchronized boolean isDirty() throws IllegalStateException {
+        for (ConfigProperty<?, ?> property : getProperties()) {
+            if (property.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes the current snapshot and clears all dirty flags, as the snapshot was just loaded.
+     * @return the current snapshot
+     */
+    private synchronized ConfigSnapshot snapshotAndClearDirty() {
+        for (ConfigProperty<?, ?> property : getProperties()) {
+            property.setDirty(false);
+        }
+        return snapshot();
+    }
+
+    /**
+     * Clears the dirty flags of all properties whose cached value is still the saved one,
+     * so changes made while the snapshot was being written stay dirty.
+     * @param saved the snapshot that was successfully saved
+     */
+    private synchronized void clearDirty(ConfigSnapshot saved) {
+        for (ConfigProperty<?, ?> property : getProperties()) {
+            if (property.getCachedValue().equals(saved.get(property))) {
+                property.setDirty(false);
+            }
+        }
+    }
+
+    /**
+     * Starts a bulk update, during which changes are collected instead of being published one by one.
+     * Every call must be followed by a call to {@link #endUpdate()}.
+     */
+    synchronized void beginUpdate() {
+        updateDepth++;
+    }
+
+    /**
+     * Ends a bulk update and publishes the collected changes, if any.
+     * @see #beginUpdate()
+     */
+    synchronized void endUpdate() {
+        if (--updateDepth == 0 && !changed.isEmpty()) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Publishes a new snapshot, copying the latest one and only updating the {@link #changed} properties.
+     */
+    private synchronized void publishSnapshot() {
+        ConfigSnapshot previous = snapshot;
+        if (previous == null) {
+            // still initializing, the first snapshot reads all cached values anyway
+            return;
+        }
+        ConfigSnapshot current = previous.withChanges(previous.getVersion() + 1, changed);
+        snapshot = current;
+        ConfigJournal journal = this.journal;
+        if (journal != null) {
+            appendToJournal(journal, previous, current);
+        }
+        changed.clear();
+    }
+
+    /**
+     * Queues the {@link #changed} values to be appended to the journal.
+     * Only serializing them happens on the calling thread, writing them happens in the background.
+     * @param journal the journal to append to
+     * @param previous the previously published snapshot
+     * @param current the newly published snapshot
+     */
+    private void appendToJournal(ConfigJournal journal, ConfigSnapshot previous, ConfigSnapshot current) {
+        StringWriter changes = new StringWriter();
+        try {
+            JsonWriter jsonWriter = new JsonWriter(changes);
+            jsonWriter.beginObject();
+            for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                ConfigProperty<?, ?> property = properties[i];
+                Object value = current.get(property);
+                if (!value.equals(previous.get(property))) {
+                    jsonWriter.name(property.getName());
+                    property.writeValue(jsonWriter, value);
+                }
+            }
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        } catch (IOException e) {
+            // cannot happen for a StringWriter
+            throw new IllegalStateException(e);
+        }
+        journal.append(current.getVersion(), changes.toString());
+    }
+
+    /**
+     * Folds the journal into the config file. Called on the saver thread once the journal has grown too large.
+     * @param file the config file
+     */
+    private void compactJournal(Path file) {
+        try {
+            writeTo(file, snapshot());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Journal couldn't be compacted into {}!", file);
+        }
+    }
+
+    /**
+     * @return the properties of this config in iteration order
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    ConfigProperty<?, ?>[] getProperties() throws IllegalStateException {
+        if (properties == null) {
+            throw new IllegalStateException("Config hasn't been initialized yet!");
+        }
+        return properties;
+    }
+
+    /**
+     * Returns a hash identifying how the values of this config are encoded in binary: the names and types of the
+     * properties, their codecs and, as enums are encoded by ordinal, their enum constants.
+     * The hash is the same in every run as long as the properties don't change. Codecs that are lambdas only count
+     * by the property type, as the names of their classes change from run to run.
+     * @return the fingerprint of this config
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    int fingerprint() throws IllegalStateException {
+        int fingerprint = 1;
+        for (ConfigProperty<?, ?> property : getProperties()) {
+            fingerprint = 31 * fingerprint + property.getName().hashCode();
+            fingerprint = 31 * fingerprint + property.getClass().getName().hashCode();
+            Class<?> codecClass = property.getCodec().getClass();
+            if (!codecClass.isHidden()) {
+                fingerprint = 31 * fingerprint + codecClass.getName().hashCode();
+            }
+            if (property instanceof EnumConfigProperty<?> enumProperty) {
+                for (Enum<?> constant : enumProperty.getEnumClass().getEnumConstants()) {
+                    fingerprint = 31 * fingerprint + constant.name().hashCode();
+                }
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Updates the cached values of all rule properties from the given world, publishing the changes at once.
+     * @param world the world to take the rule values from, nothing happens if <code>null</code>
+     */
+    private void syncWithRules(@Nullable World world) {
+        if (world == null) {
+            return;
+        }
+        beginUpdate();
+        try {
+            for (ConfigProperty<?, ?> property : getProperties()) {
+                if (property.isWithGameRule()) {
+                    property.syncWithRule(world);
+                }
+            }
+        } finally {
+            endUpdate();
+        }
     }
 
     /**
-     * Saves the current in-game config to the specified file.
+     * Saves the current in-game config to the specified file. The file is written through a temporary file,
+     * so it's never left half-written.
      *
      * @param file  The file to save to. Should be a real file (not a directory) and writeable.
      * @param world Needed to get the most recent game rule values. Can be <code>null</code>, then the cached
      *              values will be used.
-     * @throws IllegalStateException If an unknown subclass of {@link ConfigProperty} was attempted to be saved.
-     *                               In this case you need to override this method in your subclass.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see PropertyCodecs
+     * @see #saveAsync(Path, World)
      */
     public void saveTo(Path file, @Nullable World world) throws IllegalStateException {
+        getProperties();
         if (Files.isDirectory(file)) {
             LOGGER.warn("Please don't offer a directory as a config file!");
             return;
         }
-        JsonObject config = new JsonObject();
-        for (ConfigProperty<?, ?> property : this) {
-            if (property instanceof IntConfigProperty intProperty) {
-                config.addProperty(intProperty.getName(), intProperty.getValue(world));
-            } else if (property instanceof BooleanConfigProperty booleanProperty) {
-                config.addProperty(booleanProperty.getName(), booleanProperty.getValue());
-            } else {
-                throw new IllegalStateException("Attempted to save unknown config property type " + property.getClass().getName() + "!");
-            }
-        }
+        syncWithRules(world);
+        ConfigSnapshot values = snapshot();
         try {
-            Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(config));
+            writeTo(file, values);
+            clearDirty(values);
         } catch (IOException e) {
             LOGGER.warn("Config file couldn't be written!");
         }
     }
 
+    /**
+     * Saves the current in-game config to the specified file on a background thread. The values are captured
+     * on the calling thread. Save requests for the same file that arrive while an earlier one is still waiting
+     * are coalesced into a single write of the newest values.
+     *
+     * @param file  The file to save to. Should be a real file (not a directory) and writeable.
+     * @param world Needed to get the most recent game rule values. Can be <code>null</code>, then the cached
+     *              values will be used.
+     * @return a future completing once the values have been written
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #awaitSaved()
+     */
+    public CompletableFuture<Void> saveAsync(Path file, @Nullable World world) throws IllegalStateException {
+        getProperties();
+        if (Files.isDirectory(file)) {
+            LOGGER.warn("Please don't offer a directory as a config file!");
+            return CompletableFuture.completedFuture(null);
+        }
+        syncWithRules(world);
+        ConfigSnapshot values = snapshot();
+        PendingSave pending;
+        synchronized (pendingSaves) {
+            pending = pendingSaves.get(file);
+            if (pending != null) {
+                pending.values = values;
+                return pending.future;
+            }
+            pending = new PendingSave(values);
+            pendingSaves.put(file, pending);
+            lastSave = pending.future;
+        }
+        PendingSave save = pending;
+        ConfigFiles.SAVE_EXECUTOR.execute(() -> {
+            ConfigSnapshot newest;
+            synchronized (pendingSaves) {
+                pendingSaves.remove(file);
+                newest = save.values;
+            }
+            try {
+                writeTo(file, newest);
+                clearDirty(newest);
+                save.future.complete(null);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Config file couldn't be written!");
+                save.future.completeExceptionally(e);
+            }
+        });
+        return pending.future;
+    }
+
+    /**
+     * Blocks until all asynchronous saves requested so far have finished. Call this when the server stops.
+     * @see #saveAsync(Path, World)
+     */
+    public void awaitSaved() {
+        CompletableFuture<Void> last;
+        synchronized (pendingSaves) {
+            last = lastSave;
+        }
+        // saves run one after another, so the last one finishes last
+        last.exceptionally(e -> null).join();
+    }
+
+    /**
+     * Atomically writes the given values to the given file. Nothing is written if the file still holds exactly
+     * these values, either because nothing changed since the file was last saved or loaded, or because the
+     * serialized values have the same size and CRC32C as the file's content when it was last saved.
+     * Values older than the ones the file was last saved or loaded with are dropped instead of being written.
+     * The JSON is streamed into the file, so it's never held in memory as a whole.
+     * @param file the file to write
+     * @param values the values to write
+     * @throws IOException If writing fails.
+     */
+    private void writeTo(Path file, ConfigSnapshot values) throws IOException {
+        ConfigEvents.Save event = new ConfigEvents.Save();
+        event.begin();
+        event.config = getClass().getName();
+        event.file = file.toString();
+        synchronized (fileLock) {
+            FileState known = fileStates.get(file);
+            if (known != null && known.version > values.getVersion()) {
+                // a newer snapshot was saved or loaded in the meantime, e.g. by a synchronous save overtaking
+                // a queued asynchronous one
+                return;
+            }
+            boolean matches = known != null && known.matches(file);
+            if (!matches || known.version != values.getVersion()) {
+                ConfigFiles.Written written = ConfigFiles.writeAtomically(file,
+                        out -> writeValues(new OutputStreamWriter(out, StandardCharsets.UTF_8), values),
+                        matches ? known.size : -1, matches ? known.crc : -1);
+                event.bytes = written.size();
+                event.written = written.replaced();
+                fileStates.put(file, FileState.of(file, values.getVersion(), written.crc()));
+                if (binaryCache) {
+                    Object[] array = new Object[properties.length];
+                    for (int i = 0; i < properties.length; i++) {
+                        array[i] = values.get(properties[i]);
+                    }
+                    ConfigCache.write(this, file, written.crc(), array);
+                }
+            }
+            ConfigJournal journal = this.journal;
+            if (journal != null && journal.getFile().equals(file)) {
+                journal.truncate(values.getVersion());
+            }
+        }
+        event.commit();
+    }
+
+    /**
+     * Saves the current in-game config as JSON to the specified writer. The writer is flushed but not closed.
+     *
+     * @param writer The writer to save to.
+     * @param world  Needed to get the most recent game rule values. Can be <code>null</code>, then the cached
+     *               values will be used.
+     * @throws IOException           If writing fails.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #saveTo(Path, World)
+     */
+    public void saveTo(Writer writer, @Nullable World world) throws IOException, IllegalStateException {
+        getProperties();
+        syncWithRules(world);
+        writeValues(writer, snapshot());
+    }
+
+    /**
+     * Writes the given values as JSON. The writer is flushed but not closed.
+     * @param writer the writer to write to
+     * @param values the values to write
+     * @throws IOException If writing fails.
+     */
+    private void writeValues(Writer writer, ConfigSnapshot values) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setIndent("  ");
+        jsonWriter.beginObject();
+        for (ConfigProperty<?, ?> property : getProperties()) {
+            jsonWriter.name(property.getName());
+            property.writeValue(jsonWriter, values.get(property));
+        }
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
     /**
      * Loads the config from the specified file.
      *
      * @param file   The file to save to. Should be a real file (not a directory) and writeable.
      * @param server Needed to set the game rule values. Can be <code>null</code>, then the values will only be cached
      *               but not be available for the game rules.
-     * @throws IllegalStateException If an unknown subclass of {@link ConfigProperty} was attempted to be loaded.
-     *                               In this case you need to override this method in your subclass.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see PropertyCodecs
      */
     public void loadFrom(Path file, @Nullable MinecraftServer server) throws IllegalStateException {
+        getProperties();
         if (!Files.isReadable(file)) {
             LOGGER.warn("No readable config file found!");
             return;
         }
-        JsonObject config;
         try {
-            config = new Gson().fromJson(Files.readString(file), JsonObject.class);
-        } catch (IOException e) {
+            applyLoadedValues(file, readValues(file), server);
+        } catch (IOException | RuntimeException e) {
             LOGGER.warn("Config file couldn't be read!");
+        }
+    }
+
+    /**
+     * Watches the specified file and reloads the config whenever the file changes, e.g. when it is edited while
+     * the server is running. Bursts of changes are debounced, the file is parsed on a background thread and
+     * only values that actually differ are set, all at once in a single task on the server thread.
+     *
+     * @param file   The file to watch. Doesn't need to exist yet.
+     * @param server The server to set the game rule values on and to schedule the reloads on.
+     * @return the watcher, which needs to be closed once the file shouldn't be watched anymore, e.g. when the server stops
+     * @throws IOException           If the file's directory cannot be watched.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     */
+    public ConfigWatcher watch(Path file, MinecraftServer server) throws IOException, IllegalStateException {
+        getProperties();
+        return new ConfigWatcher(this, file, server);
+    }
+
+    /**
+     * Reads the values of all properties from the specified file without setting them. If the binary cache is
+     * enabled and fresh, it is read instead of the file. If journal mode is enabled for the file,
+     * the journal is replayed on top of it. Every load of a file goes through here, so this emits the load event.
+     * @param file the file to read
+     * @return the read values indexed like {@link #properties}, <code>null</code> for missing values and
+     * {@link #UNREADABLE} for values of the wrong type
+     * @throws IOException If reading fails or the JSON is malformed.
+     */
+    Object[] readValues(Path file) throws IOException {
+        ConfigEvents.Load event = new ConfigEvents.Load();
+        event.begin();
+        Object[] values = readFileValues(file);
+        if (event.shouldCommit()) {
+            event.config = getClass().getName();
+            event.file = file.toString();
+            event.bytes = Files.size(file);
+            event.properties = values.length;
+            event.commit();
+        }
+        return values;
+    }
+
+    /**
+     * @see #readValues(Path)
+     */
+    private Object[] readFileValues(Path file) throws IOException {
+        Object[] values = binaryCache ? ConfigCache.read(this, file) : null;
+        if (values == null && binaryCache) {
+            byte[] content = Files.readAllBytes(file);
+            values = readValues(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8));
+            // saves write the cache as well, through the same temporary file
+            synchronized (fileLock) {
+                ConfigCache.write(this, file, ConfigFiles.crc(content), values);
+            }
+        } else if (values == null) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                values = readValues(reader);
+            }
+        }
+        ConfigJournal journal = this.journal;
+        if (journal != null && journal.getFile().equals(file)) {
+            for (String record : journal.read()) {
+                Object[] changes;
+                try {
+                    changes = readValues(new StringReader(record));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Journal of {} is corrupted, the remaining records will be ignored!", file);
+                    break;
+                }
+                for (int i = 0; i < changes.length; i++) {
+                    if (changes[i] != null && changes[i] != UNREADABLE) {
+                        values[i] = changes[i];
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param file a file
+     * @return <code>true</code> if the file still holds exactly what this config last saved to or loaded from it
+     */
+    boolean isUnchanged(Path file) {
+        synchronized (fileLock) {
+            FileState known = fileStates.get(file);
+            return known != null && known.matches(file);
+        }
+    }
+
+    /**
+     * Sets values read from the specified file and remembers that the file holds them.
+     * @param file the file the values were read from
+     * @param values the values indexed like {@link #properties}, <code>null</code> for missing values
+     * @param server needed for accessing the game rule values
+     * @throws IOException If the file's state cannot be determined.
+     */
+    void applyLoadedValues(Path file, Object[] values, @Nullable MinecraftServer server) throws IOException {
+        boolean complete = applyValues(values, server);
+        ConfigSnapshot snapshot = snapshotAndClearDirty();
+        ConfigJournal journal = this.journal;
+        if (journal != null && journal.getFile().equals(file)) {
+            // fold the replayed journal into the file, so it doesn't have to be replayed again
+            writeTo(file, snapshot);
             return;
         }
-        for (ConfigProperty<?, ?> property : this) {
-            JsonElement value;
-            if (property instanceof IntConfigProperty intProperty) {
-                value = config.get(intProperty.getName());
-                if (value == null) {
-                    LOGGER.warn("Missing config value for " + intProperty.getName() + ", default will be used!");
+        synchronized (fileLock) {
+            if (complete) {
+                fileStates.put(file, FileState.of(file, snapshot.getVersion(), -1));
+            } else {
+                // the file lacks values, so it has to be written on the next save
+                fileStates.remove(file);
+            }
+        }
+    }
+
+    /**
+     * Loads the config from the specified UTF-8 encoded stream, e.g. the defaults shipped as a jar resource.
+     * The stream is not closed.
+     *
+     * @param in     The stream to load from.
+     * @param server Needed to set the game rule values. Can be <code>null</code>, then the values will only be cached
+     *               but not be available for the game rules.
+     * @throws IOException           If reading fails or the JSON is malformed. In this case no value is changed.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #loadFrom(Reader, MinecraftServer)
+     */
+    public void loadFrom(InputStream in, @Nullable MinecraftServer server) throws IOException, IllegalStateException {
+        loadFrom(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), server);
+    }
+
+    /**
+     * Loads the config as JSON from the specified reader. The reader is not closed.
+     * All values are read before any of them is set, so malformed JSON doesn't leave the config half loaded.
+     *
+     * @param reader The reader to load from.
+     * @param server Needed to set the game rule values. Can be <code>null</code>, then the values will only be cached
+     *               but not be available for the game rules.
+     * @throws IOException           If reading fails or the JSON is malformed. In this case no value is changed.
+     * @throws IllegalStateException If this config hasn't been initialized yet.
+     * @see #loadFrom(Path, MinecraftServer)
+     */
+    public void loadFrom(Reader reader, @Nullable MinecraftServer server) throws IOException, IllegalStateException {
+        applyValues(readValues(reader), server);
+    }
+
+    /**
+     * Reads the values of all properties from JSON without setting them. Unknown names are skipped.
+     * @param reader the reader to read from
+     * @return the read values indexed like {@link #properties}, <code>null</code> for missing values and
+     * {@link #UNREADABLE} for values of the wrong type
+     * @throws IOException If reading fails or the JSON is malformed.
+     */
+    private Object[] readValues(Reader reader) throws IOException {
+        ConfigProperty<?, ?>[] properties = getProperties();
+        Object[] values = new Object[properties.length];
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IOException("Config must be a JSON object, but is " + jsonReader.peek() + "!");
+        }
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            ConfigProperty<?, ?> property = propertiesByName.get(jsonReader.nextName());
+            if (property == null) {
+                jsonReader.skipValue();
+                continue;
+            }
+            Object value = property.readValue(jsonReader);
+            values[property.getIndex()] = value == null ? UNREADABLE : value;
+        }
+        jsonReader.endObject();
+        return values;
+    }
+
+    /**
+     * Sets the given values, publishing the changes at once. Values equal to the current ones are skipped.
+     * Invalid values don't throw, they are handled by the {@link ConfigProperty#getInvalidValuePolicy() policy}
+     * of their property instead.
+     * @param values the values indexed like {@link #properties}, <code>null</code> for missing values
+     * @param server needed for accessing the game rule values
+     * @return <code>true</code> if no value was missing or invalid
+     */
+    private boolean applyValues(Object[] values, @Nullable MinecraftServer server) {
+        ConfigProperty<?, ?>[] properties = getProperties();
+        boolean complete = true;
+        beginUpdate();
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                if (values[i] == null) {
+                    LOGGER.warn("Missing config value for " + properties[i].getName() + ", default will be used!");
+                    complete = false;
                     continue;
                 }
-                intProperty.setValue(value.getAsInt(), server);
-            } else if (property instanceof BooleanConfigProperty booleanProperty) {
-                value = config.get(booleanProperty.getName());
-                if (value == null) {
-                    LOGGER.warn("Missing config value for " + booleanProperty.getName() + ", default will be used!");
+                Object value = properties[i].sanitize(values[i] == UNREADABLE ? null : values[i]);
+                if (value != values[i]) {
+                    complete = false;
+                }
+                if (value != null) {
+                    properties[i].applyValue(value, server);
+                }
+            }
+        } finally {
+            endUpdate();
+        }
+        return complete;
+    }
+
+    /**
+     * Sets the given values received from the server, publishing the changes at once. Invalid values are skipped.
+     * The local values are kept until they are restored by {@link #restoreLocalValues()}.
+     * @param values the values indexed like {@link #properties}, <code>null</code> for values that weren't sent
+     */
+    synchronized void applySyncedValues(Object[] values) {
+        ConfigProperty<?, ?>[] properties = getProperties();
+        if (localValues == null) {
+            BitSet dirty = new BitSet(properties.length);
+            for (int i = 0; i < properties.length; i++) {
+                dirty.set(i, properties[i].isDirty());
+            }
+            localValues = new LocalValues(snapshot(), dirty);
+        }
+        beginUpdate();
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                if (values[i] == null) {
                     continue;
                 }
-                booleanProperty.setValue(value.getAsBoolean(), server);
-            } else {
-                throw new IllegalStateException("Attempted to load unknown config property type " + property.getClass().getName() + "!");
+                try {
+                    properties[i].applyValue(values[i], null);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Synced value for {} is invalid: {}", properties[i].getName(), e.getMessage());
+                }
+            }
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Restores the values and dirty properties from before the first values were received from a server,
+     * so the values of a server never end up in the local config. Called once the client disconnected.
+     */
+    synchronized void restoreLocalValues() {
+        LocalValues local = localValues;
+        if (local == null) {
+            return;
+        }
+        localValues = null;
+        beginUpdate();
+        try {
+            for (ConfigProperty<?, ?> property : properties) {
+                property.applyValue(local.values().get(property), null);
+            }
+        } finally {
+            endUpdate();
+        }
+        for (int i = 0; i < properties.length; i++) {
+            properties[i].setDirty(local.dirty().get(i));
+        }
+    }
+
+    /**
+     * The snapshots captured for the current tick.
+     * @param server the snapshot captured at the start of the server tick
+     * @param worlds the snapshots of the worlds with their own game rules that started their tick since
+     */
+    private record TickState(ConfigSnapshot server, WorldSnapshot[] worlds) {
+    }
+
+    /**
+     * The snapshot captured at the start of a world's tick.
+     * @param world the world
+     * @param snapshot the captured values
+     */
+    private record WorldSnapshot(World world, ConfigSnapshot snapshot) {
+    }
+
+    /**
+     * A listener of a config or one of its properties.
+     * @param property the property listened to or <code>null</code> for the whole config
+     * @param consumer the listener
+     * @param executor the executor to notify on or <code>null</code>
+     */
+    private record Listener(ConfigProperty<?, ?> property, Consumer<Object> consumer, Executor executor) {
+
+        private void deliver(Object value) {
+            if (executor != null) {
+                executor.execute(() -> consumer.accept(value));
+                return;
+            }
+            try {
+                consumer.accept(value);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Config listener failed!", e);
+            }
+        }
+    }
+
+    /**
+     * An asynchronous save that hasn't started yet.
+     */
+    private static final class PendingSave {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        /**
+         * the newest values to write, replaced when further saves are requested
+         */
+        private ConfigSnapshot values;
+
+        private PendingSave(ConfigSnapshot values) {
+            this.values = values;
+        }
+    }
+
+    /**
+     * The local state of a client before it received values from a server.
+     * @param values the local values
+     * @param dirty the indices of the properties that were dirty
+     */
+    private record LocalValues(ConfigSnapshot values, BitSet dirty) {
+    }
+
+    /**
+     * The state of a file right after it was last saved or loaded.
+     * @param version the version of the snapshot the file holds
+     * @param size the size of the file
+     * @param lastModified the modification time of the file
+     * @param crc the CRC32C of the file, <code>-1</code> if unknown because the file was loaded
+     */
+    private record FileState(long version, long size, FileTime lastModified, long crc) {
+
+        private static FileState of(Path file, long version, long crc) throws IOException {
+            return new FileState(version, Files.size(file), Files.getLastModifiedTime(file), crc);
+        }
+
+        /**
+         * @return <code>true</code> if the file wasn't modified since this state was recorded
+         */
+        private boolean matches(Path file) {
+            try {
+                return Files.size(file) == size && Files.getLastModifiedTime(file).equals(lastModified);
+            } catch (IOException e) {
+                return false;
             }
         }
     }
@@ -0,0 +1,33 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.S2CPlayChannelEvents;
+import net.minecraft.util.Identifier;
+
+/**
+ * Hooks the library's shared services into the server lifecycle.
+ */
+public class AyuSimpleConfig implements ModInitializer {
+
+    /**
+     * the phase of {@link ServerLifecycleEvents#SERVER_STOPPING} in which the shared stores are written,
+     * after mods updated their sections in the default phase
+     */
+    private static final Identifier FLUSH_PHASE = new Identifier("ayusimpleconfig", "flush");
+
+    @Override
+    public void onInitialize() {
+        ServerLifecycleEvents.SERVER_STARTED.register(ConfigLoader::loadAll);
+        S2CPlayChannelEvents.REGISTER.register(ConfigSync::onChannelRegister);
+        ServerTickEvents.END_SERVER_TICK.register(ConfigSync::onEndTick);
+        ServerTickEvents.END_SERVER_TICK.register(server -> ConfigListeners.dispatch());
+        ServerTickEvents.START_SERVER_TICK.register(TickSnapshots::onStartTick);
+        ServerTickEvents.START_WORLD_TICK.register(TickSnapshots::onStartWorldTick);
+        ServerLifecycleEvents.SERVER_STOPPED.register(TickSnapshots::onServerStopped);
+        ServerLifecycleEvents.SERVER_STOPPING.addPhaseOrdering(Event.DEFAULT_PHASE, FLUSH_PHASE);
+        ServerLifecycleEvents.SERVER_STOPPING.register(FLUSH_PHASE, server -> SharedConfigStore.flushAll());
+    }
+}
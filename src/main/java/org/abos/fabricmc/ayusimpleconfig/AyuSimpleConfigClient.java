@@ -0,0 +1,43 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+
+import java.io.IOException;
+
+/**
+ * Receives the values of synced configs from the server, restores the local values after disconnecting,
+ * and notifies config listeners while no integrated server does.
+ * @see ConfigSync
+ */
+@Environment(EnvType.CLIENT)
+public class AyuSimpleConfigClient implements ClientModInitializer {
+
+    @Override
+    public void onInitializeClient() {
+        ClientPlayNetworking.registerGlobalReceiver(ConfigSync.CHANNEL, (client, handler, buf, responseSender) -> {
+            if (client.isIntegratedServerRunning()) {
+                // the integrated server shares the configs with the client
+                return;
+            }
+            try {
+                Runnable apply = ConfigSync.receive(buf);
+                if (apply != null) {
+                    client.execute(apply);
+                }
+            } catch (IOException | RuntimeException e) {
+                AbstractConfig.LOGGER.warn("Received config values couldn't be read!");
+            }
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(ConfigSync::restoreLocalValues));
+        ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            if (!client.isIntegratedServerRunning()) {
+                ConfigListeners.dispatch();
+            }
+        });
+    }
+}
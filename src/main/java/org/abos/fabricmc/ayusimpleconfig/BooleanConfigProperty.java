@@ -15,6 +15,17 @@ import org.jetbrains.annotations.Nullable;
  */
 public class BooleanConfigProperty extends ConfigProperty<Boolean, GameRules.BooleanRule> {
 
+    /**
+     * the bitset holding the cached value at {@link #bit}, shared with the other boolean properties of the config
+     * once it has been initialized
+     */
+    private long[] words;
+
+    /**
+     * the position of the cached value in {@link #words}
+     */
+    private int bit;
+
     /**
      * Creates a new {@link BooleanConfigProperty} that is not a game rule.
      *
@@ -40,6 +51,87 @@ public class BooleanConfigProperty extends ConfigProperty<Boolean, GameRules.Boo
         super(name, namespace, defaultValue, ruleCategory);
     }
 
+    /**
+     * Returns the value from the given rule if it exists or the cached value. Unlike {@link #getValue(World)}
+     * this method doesn't box the value.
+     * @param world needed for accessing the game rule value
+     * @return the cached value if the game rule doesn't exist, wasn't accessible or <code>world</code> was <code>null</code>,
+     * else the game rule value
+     * @see #getValue(World)
+     */
+    public boolean getBoolean(@Nullable World world) {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(world);
+        if (tick != null) {
+            return tick.getBoolean(this);
+        }
+        if (isWithGameRule() && world != null) {
+            syncWithRule(world);
+        }
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return the cached value
+     * @see #getBoolean(World)
+     */
+    public boolean getBoolean() {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(null);
+        if (tick != null) {
+            return tick.getBoolean(this);
+        }
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    @Override
+    @NotNull
+    protected Boolean getCachedValue() {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    @Override
+    protected void setCachedValue(@NotNull Boolean value) {
+        if (words == null) {
+            // called from the super constructor
+            words = new long[1];
+        }
+        // other properties share the word, so the update must not interleave with theirs
+        synchronized (words) {
+            if (value) {
+                words[bit >>> 6] |= 1L << bit;
+            } else {
+                words[bit >>> 6] &= ~(1L << bit);
+            }
+        }
+    }
+
+    /**
+     * @return the position of the cached value in the bitset of the config
+     * @see FlagMask
+     */
+    int getBit() {
+        return bit;
+    }
+
+    /**
+     * Moves the cached value into the packed storage of the config. Called by {@link AbstractConfig#initialize()}.
+     * @param words the boolean values of the config as a bitset
+     * @param bit the position of this property's value
+     */
+    void pack(@NotNull long[] words, int bit) {
+        boolean value = getCachedValue();
+        this.words = words;
+        this.bit = bit;
+        setCachedValue(value);
+    }
+
+    @Override
+    @NotNull
+    protected Class<?> getConstantType() {
+        return boolean.class;
+    }
+
     @Override
     @Nullable
     protected Boolean getRuleValue(@NotNull World world) throws IllegalStateException {
@@ -48,7 +140,6 @@ public class BooleanConfigProperty extends ConfigProperty<Boolean, GameRules.Boo
         }
         GameRules.BooleanRule rule = world.getGameRules().get(getRuleKey());
         if (rule == null) {
-            AbstractConfig.LOGGER.warn("Rule "+getRuleName()+" couldn't be found!");
             return null;
         }
         return rule.get();
@@ -61,10 +152,16 @@ public class BooleanConfigProperty extends ConfigProperty<Boolean, GameRules.Boo
             rule.set(value, server);
         }
         else {
-            AbstractConfig.LOGGER.warn("Rule "+getRuleName()+" couldn't be found!");
+            AbstractConfig.LOGGER.warn("Rule {} couldn't be found!", getRuleName());
         }
     }
 
+    @Override
+    @NotNull
+    public ValidationStatus check(@Nullable Boolean value) {
+        return value == null ? ValidationStatus.INVALID : ValidationStatus.VALID;
+    }
+
     @Override
     @NotNull
     public Boolean validate(Boolean value) throws IllegalArgumentException {
@@ -82,6 +179,7 @@ public class BooleanConfigProperty extends ConfigProperty<Boolean, GameRules.Boo
         if (ruleKey != null) {
             throw new IllegalStateException("Attempted to register "+getRuleName()+" twice!");
         }
-        return ruleKey = GameRuleRegistry.register(getRuleName(), getRuleCategory(), GameRuleFactory.createBooleanRule(getDefaultValue()));
+        return ruleKey = GameRuleRegistry.register(getRuleName(), getRuleCategory(), GameRuleFactory.createBooleanRule(getDefaultValue(),
+                (server, rule) -> onRuleChanged(server, rule.get())));
     }
 }
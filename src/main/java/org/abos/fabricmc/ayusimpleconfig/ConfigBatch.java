@@ -0,0 +1,79 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.server.MinecraftServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects new values for several properties of a config and sets them all at once.
+ * All values are validated before the first one is set, so a failing validation has no side effects.
+ * The changes are published as a single new {@link ConfigSnapshot}.
+ * @see AbstractConfig#batch()
+ */
+public final class ConfigBatch {
+
+    private final AbstractConfig config;
+
+    private final Map<ConfigProperty<?, ?>, Object> values = new LinkedHashMap<>();
+
+    private boolean committed;
+
+    ConfigBatch(@NotNull AbstractConfig config) {
+        this.config = Objects.requireNonNull(config);
+    }
+
+    /**
+     * Adds a new value to this batch, replacing any value added for the same property before.
+     * @param property a property of the config of this batch
+     * @param value the new value, validated on {@link #commit(MinecraftServer)}
+     * @return this batch
+     * @throws IllegalArgumentException If the property doesn't belong to the config of this batch.
+     * @throws IllegalStateException If this batch has already been committed.
+     */
+    @NotNull
+    public <T> ConfigBatch set(@NotNull ConfigProperty<T, ?> property, @NotNull T value) throws IllegalArgumentException, IllegalStateException {
+        if (committed) {
+            throw new IllegalStateException("Batch has already been committed!");
+        }
+        if (property.getConfig() != config) {
+            throw new IllegalArgumentException(property.getName()+" doesn't belong to this config!");
+        }
+        values.put(property, Objects.requireNonNull(value));
+        return this;
+    }
+
+    /**
+     * Validates all values of this batch and, if all are valid, sets them. Values equal to the current ones are skipped.
+     * @param server needed for accessing the game rule values
+     * @throws IllegalArgumentException If validation of any value fails. In this case no value is changed.
+     * @throws IllegalStateException If this batch has already been committed.
+     */
+    public void commit(@Nullable MinecraftServer server) throws IllegalArgumentException, IllegalStateException {
+        if (committed) {
+            throw new IllegalStateException("Batch has already been committed!");
+        }
+        for (Map.Entry<ConfigProperty<?, ?>, Object> entry : values.entrySet()) {
+            entry.getKey().validateValue(entry.getValue());
+        }
+        committed = true;
+        config.beginUpdate();
+        try {
+            for (Map.Entry<ConfigProperty<?, ?>, Object> entry : values.entrySet()) {
+                entry.getKey().applyValue(entry.getValue(), server);
+            }
+        } finally {
+            config.endUpdate();
+        }
+    }
+
+    /**
+     * @see #commit(MinecraftServer)
+     */
+    public void commit() throws IllegalArgumentException, IllegalStateException {
+        commit(null);
+    }
+}
@@ -0,0 +1,168 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary sidecar next to a config file holding its parsed values, so loading can skip parsing the JSON.
+ * The cache is named like the config file with <code>.bin</code> appended and laid out as follows:
+ * <ul>
+ *     <li>the magic number and the format version, one int each</li>
+ *     <li>the size and the modification time of the config file, one long each, and its CRC32C as an int</li>
+ *     <li>the {@link AbstractConfig#fingerprint() fingerprint} of the config as an int</li>
+ *     <li>the number of entries as an int, followed by the entries: the property index as an int,
+ *     a byte which is <code>1</code> if a value follows and <code>0</code> if the file held an unreadable value,
+ *     and the value written by {@link PropertyCodec#writeBinary(java.io.DataOutput, Object)}</li>
+ * </ul>
+ * @see AbstractConfig#setBinaryCache(boolean)
+ */
+final class ConfigCache {
+
+    private static final int MAGIC = 0x41594342;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * the size of the header in bytes, up to and including the number of entries
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    private ConfigCache() {
+        /* No instantiation. */
+    }
+
+    /**
+     * @param file a config file
+     * @return the cache of that file
+     */
+    static Path cacheFile(@NotNull Path file) {
+        return file.resolveSibling(file.getFileName() + ".bin");
+    }
+
+    /**
+     * Reads the values of a config file from its cache, if the cache is fresh.
+     * @param config the config the file belongs to
+     * @param file the config file
+     * @return the values like {@link AbstractConfig#readValues(Path)} returns them, or <code>null</code> if there is
+     * no fresh cache, then the file needs to be parsed
+     */
+    @Nullable
+    static Object[] read(@NotNull AbstractConfig config, @NotNull Path file) {
+        Path cache = cacheFile(file);
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            // the cache is read into the heap instead of being mapped, as a live mapping would keep a stale cache
+            // from being replaced on Windows
+            ByteBuffer buffer = readFully(channel, HEADER_SIZE);
+            if (buffer == null || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            // compare the cheap attributes first, the hash needs the whole file
+            if (buffer.getLong() != Files.size(file) || buffer.getLong() != Files.getLastModifiedTime(file).toMillis()) {
+                return null;
+            }
+            if (buffer.getInt() != (int) ConfigFiles.crc(Files.readAllBytes(file)) || buffer.getInt() != config.fingerprint()) {
+                return null;
+            }
+            int count = buffer.getInt();
+            buffer = readFully(channel, channel.size() - HEADER_SIZE);
+            if (buffer == null) {
+                return null;
+            }
+            ConfigProperty<?, ?>[] properties = config.getProperties();
+            Object[] values = new Object[properties.length];
+            DataInput in = new ByteBufInputStream(Unpooled.wrappedBuffer(buffer));
+            for (int i = 0; i < count; i++) {
+                int index = in.readInt();
+                if (index < 0 || index >= properties.length) {
+                    return null;
+                }
+                values[index] = in.readByte() == 0 ? AbstractConfig.UNREADABLE : properties[index].readBinary(in);
+            }
+            return values;
+        } catch (IOException | RuntimeException e) {
+            AbstractConfig.LOGGER.warn("Config cache {} couldn't be read and will be regenerated!", cache);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next bytes of a channel into a heap buffer.
+     * @param channel the channel to read from
+     * @param size the number of bytes to read
+     * @return the flipped buffer or <code>null</code> if the channel ends before
+     * @throws IOException If reading fails.
+     */
+    @Nullable
+    private static ByteBuffer readFully(FileChannel channel, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Writes the cache of a config file. Failures are only logged, as the cache can always be regenerated.
+     * @param config the config the file belongs to
+     * @param file the config file, which has just been read or written
+     * @param crc the CRC32C of the content of the config file
+     * @param values the values the file holds, like {@link AbstractConfig#readValues(Path)} returns them
+     */
+    static void write(@NotNull AbstractConfig config, @NotNull Path file, long crc, @NotNull Object[] values) {
+        Path cache = cacheFile(file);
+        try {
+            ConfigProperty<?, ?>[] properties = config.getProperties();
+            int count = 0;
+            for (Object value : values) {
+                if (value != null) {
+                    count++;
+                }
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + 8 * count);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(Files.size(file));
+            out.writeLong(Files.getLastModifiedTime(file).toMillis());
+            out.writeInt((int) crc);
+            out.writeInt(config.fingerprint());
+            out.writeInt(count);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                out.writeInt(i);
+                if (values[i] == AbstractConfig.UNREADABLE) {
+                    out.writeByte(0);
+                } else {
+                    out.writeByte(1);
+                    properties[i].writeBinary(out, values[i]);
+                }
+            }
+            out.flush();
+            ConfigFiles.writeAtomically(cache, bytes.toByteArray());
+        } catch (IOException e) {
+            AbstractConfig.LOGGER.warn("Config cache {} couldn't be written!", cache);
+        }
+    }
+}
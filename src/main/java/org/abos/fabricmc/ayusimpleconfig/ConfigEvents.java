@@ -0,0 +1,72 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder events emitted by this library.
+ */
+final class ConfigEvents {
+
+    private ConfigEvents() {
+        /* No instantiation. */
+    }
+
+    @Name("org.abos.fabricmc.ayusimpleconfig.Load")
+    @Label("Config Load")
+    @Category("Ayutac's Simple Config")
+    @Description("Reading and parsing a config file, or reading its binary cache")
+    @StackTrace(false)
+    static final class Load extends Event {
+
+        @Label("Config")
+        String config;
+
+        @Label("File")
+        String file;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Properties")
+        int properties;
+    }
+
+    @Name("org.abos.fabricmc.ayusimpleconfig.Save")
+    @Label("Config Save")
+    @Category("Ayutac's Simple Config")
+    @Description("Saving a config to a file")
+    @StackTrace(false)
+    static final class Save extends Event {
+
+        @Label("Config")
+        String config;
+
+        @Label("File")
+        String file;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Written")
+        @Description("If the file was actually written, false if it already held the values")
+        boolean written;
+    }
+
+    @Name("org.abos.fabricmc.ayusimpleconfig.RuleLookupFailed")
+    @Label("Rule Lookup Failed")
+    @Category("Ayutac's Simple Config")
+    @Description("A rule couldn't be found, so the cached value was used instead")
+    static final class RuleLookupFailed extends Event {
+
+        @Label("Rule")
+        String rule;
+    }
+}
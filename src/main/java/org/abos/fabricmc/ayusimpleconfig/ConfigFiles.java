@@ -0,0 +1,133 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * File helpers shared by the configs.
+ */
+final class ConfigFiles {
+
+    /**
+     * the single background thread all asynchronous saves run on, so saves of the same file never overlap
+     */
+    static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ayusimpleconfig-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConfigFiles() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Writes a file through a temporary file in the same directory which is forced to disk and then moved over
+     * the target, so the target is never left half-written, not even after a power loss.
+     * @param file the file to write
+     * @param content the new content of the file
+     * @throws IOException If writing or moving fails.
+     */
+    static void writeAtomically(@NotNull Path file, @NotNull byte[] content) throws IOException {
+        Path temp = tempFile(file);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        replace(temp, file);
+    }
+
+    /**
+     * Streams the content of a file into a temporary file like {@link #writeAtomically(Path, byte[])} does,
+     * computing its CRC32C on the way instead of holding it in memory. If the size and the CRC32C match the given
+     * ones, the file already holds this content, so the temporary file is discarded and the file is left alone.
+     * @param file the file to write
+     * @param content writes the new content of the file, the stream must not be closed
+     * @param unchangedSize the size of the current content of the file, <code>-1</code> if unknown
+     * @param unchangedCrc the CRC32C of the current content of the file, <code>-1</code> if unknown
+     * @return the size and CRC32C of the content and if the file was replaced
+     * @throws IOException If writing or moving fails.
+     */
+    static Written writeAtomically(@NotNull Path file, @NotNull Content content, long unchangedSize, long unchangedCrc) throws IOException {
+        Path temp = tempFile(file);
+        CRC32C crc = new CRC32C();
+        long size;
+        boolean changed;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // the stream isn't closed, as that would close the channel before it is forced
+            OutputStream out = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), crc);
+            content.write(out);
+            out.flush();
+            size = channel.size();
+            changed = size != unchangedSize || crc.getValue() != unchangedCrc;
+            if (changed) {
+                channel.force(true);
+            }
+        }
+        if (changed) {
+            replace(temp, file);
+        } else {
+            Files.delete(temp);
+        }
+        return new Written(size, crc.getValue(), changed);
+    }
+
+    /**
+     * @param content the content of a file
+     * @return the CRC32C of the content
+     */
+    static long crc(@NotNull byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private static Path tempFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static void replace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the content of a file.
+     * @see #writeAtomically(Path, Content, long, long)
+     */
+    @FunctionalInterface
+    interface Content {
+
+        void write(@NotNull OutputStream out) throws IOException;
+    }
+
+    /**
+     * The result of {@link #writeAtomically(Path, Content, long, long)}.
+     * @param size the size of the content
+     * @param crc the CRC32C of the content
+     * @param replaced <code>true</code> if the file was replaced, <code>false</code> if it already held the content
+     */
+    record Written(long size, long crc, boolean replaced) {
+    }
+}
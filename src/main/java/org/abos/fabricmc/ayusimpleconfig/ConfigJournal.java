@@ -0,0 +1,329 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An append-only log of changes next to a config file. Each line holds the version of the snapshot that
+ * was published and the changed values as compact JSON, e.g. <code>7 {"speed":3}</code>.
+ * Replaying the lines in order on top of the config file restores the latest values.
+ * Records are queued and written on {@link ConfigFiles#SAVE_EXECUTOR}, where all records queued meanwhile
+ * share a single force to disk.
+ * @see AbstractConfig#enableJournal(Path, long)
+ */
+final class ConfigJournal implements Closeable {
+
+    /**
+     * the config file this journal belongs to
+     */
+    private final Path file;
+
+    private final Path journalFile;
+
+    /**
+     * the size in bytes above which the journal should be folded into the config file
+     */
+    private final long threshold;
+
+    /**
+     * folds the journal into the config file, run on the saver thread once the journal has grown past its threshold
+     */
+    private final Runnable compaction;
+
+    /**
+     * the records waiting to be written, also guards {@link #flushScheduled} and {@link #savedVersion},
+     * so appending never waits for the disk
+     */
+    private final List<Record> queued = new ArrayList<>();
+
+    /**
+     * if a flush of the queued records has been scheduled but hasn't started yet
+     */
+    private boolean flushScheduled;
+
+    /**
+     * the version the config file was last saved with, older records don't need to be written anymore
+     */
+    private long savedVersion = -1;
+
+    /**
+     * if the journal was closed for good, then records are dropped
+     */
+    private boolean closed;
+
+    /**
+     * the open journal, <code>null</code> until the first write or after closing
+     */
+    private FileChannel channel;
+
+    /**
+     * how many bytes at the start of the journal were written before this journal was opened, these records are
+     * superseded by the next save of the config file no matter their version
+     */
+    private long previousSessionSize;
+
+    /**
+     * if a compaction has been scheduled but hasn't started yet
+     */
+    private boolean compactionScheduled;
+
+    /**
+     * @param file the config file
+     * @param threshold the size in bytes above which the journal should be folded into the config file
+     * @param compaction folds the journal into the config file
+     * @throws IOException If the size of an existing journal cannot be determined.
+     */
+    ConfigJournal(@NotNull Path file, long threshold, @NotNull Runnable compaction) throws IOException {
+        this.file = Objects.requireNonNull(file);
+        this.journalFile = file.resolveSibling(file.getFileName() + ".journal");
+        this.threshold = threshold;
+        this.compaction = Objects.requireNonNull(compaction);
+        previousSessionSize = Files.isRegularFile(journalFile) ? Files.size(journalFile) : 0;
+    }
+
+    /**
+     * @return the config file this journal belongs to
+     */
+    @NotNull
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Queues a record to be written and forced to disk on the saver thread. Never blocks on the disk.
+     * @param version the version of the snapshot holding the changes
+     * @param changes the changed values as a single line of JSON
+     */
+    void append(long version, @NotNull String changes) {
+        synchronized (queued) {
+            if (version <= savedVersion) {
+                return;
+            }
+            queued.add(new Record(version, changes));
+            if (flushScheduled) {
+                // the scheduled flush will pick this record up as well
+                return;
+            }
+            flushScheduled = true;
+        }
+        ConfigFiles.SAVE_EXECUTOR.execute(this::flush);
+    }
+
+    /**
+     * Writes the queued records and starts a compaction if the journal has grown too large.
+     */
+    private void flush() {
+        boolean compact;
+        try {
+            compact = writeQueued();
+        } catch (IOException e) {
+            AbstractConfig.LOGGER.warn("Changes couldn't be appended to journal {}!", journalFile, e);
+            return;
+        }
+        if (compact) {
+            compaction.run();
+        }
+    }
+
+    /**
+     * Writes all queued records and forces them to disk together.
+     * @return <code>true</code> if the journal has grown past its threshold and no compaction is scheduled yet,
+     * then the caller is expected to start one
+     * @throws IOException If writing fails.
+     */
+    private synchronized boolean writeQueued() throws IOException {
+        List<Record> records;
+        synchronized (queued) {
+            flushScheduled = false;
+            if (closed || queued.isEmpty()) {
+                return false;
+            }
+            records = new ArrayList<>(queued);
+            queued.clear();
+        }
+        if (channel == null) {
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            dropIncompleteRecord(channel);
+            previousSessionSize = Math.min(previousSessionSize, channel.size());
+        }
+        StringBuilder lines = new StringBuilder();
+        for (Record record : records) {
+            lines.append(record.version()).append(' ').append(record.changes()).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        if (compactionScheduled || channel.size() <= threshold) {
+            return false;
+        }
+        compactionScheduled = true;
+        return true;
+    }
+
+    /**
+     * Cuts off an incomplete record at the end of the journal, so the next record doesn't get appended to it,
+     * and positions the channel at the end.
+     * @param channel the opened journal
+     * @throws IOException If reading or truncating fails.
+     */
+    private static void dropIncompleteRecord(FileChannel channel) throws IOException {
+        long end = channel.size();
+        ByteBuffer last = ByteBuffer.allocate(1);
+        while (end > 0) {
+            last.clear();
+            channel.read(last, end - 1);
+            if (last.get(0) == '\n') {
+                break;
+            }
+            end--;
+        }
+        if (end < channel.size()) {
+            channel.truncate(end);
+        }
+        channel.position(end);
+    }
+
+    /**
+     * Removes all records that are contained in the config file after it was saved with the given version.
+     * Called while the config file is locked.
+     * @param version the version of the snapshot that was saved
+     * @throws IOException If rewriting the journal fails.
+     */
+    synchronized void truncate(long version) throws IOException {
+        synchronized (queued) {
+            savedVersion = Math.max(savedVersion, version);
+            queued.removeIf(record -> record.version() <= version);
+        }
+        compactionScheduled = false;
+        if (!Files.isRegularFile(journalFile)) {
+            previousSessionSize = 0;
+            return;
+        }
+        byte[] content = Files.readAllBytes(journalFile);
+        ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        int start = (int) Math.min(previousSessionSize, content.length);
+        while (start < content.length) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            if (end == content.length) {
+                // a partial record from a crash, which won't be completed anymore
+                break;
+            }
+            String line = new String(content, start, end - start, StandardCharsets.UTF_8);
+            if (recordVersion(line) > version) {
+                kept.write(content, start, end - start + 1);
+            }
+            start = end + 1;
+        }
+        previousSessionSize = 0;
+        if (kept.size() == content.length) {
+            return;
+        }
+        closeChannel();
+        if (kept.size() == 0) {
+            Files.delete(journalFile);
+        } else {
+            ConfigFiles.writeAtomically(journalFile, kept.toByteArray());
+        }
+    }
+
+    /**
+     * Reads the changes of all complete records in order, including the queued ones. Reading stops at the first
+     * record that is incomplete, e.g. because the server crashed while writing it.
+     * @return the changed values of each record as JSON, empty if there is no journal
+     * @throws IOException If reading fails.
+     */
+    @NotNull
+    synchronized List<String> read() throws IOException {
+        writeQueued();
+        List<String> records = new ArrayList<>();
+        if (!Files.isRegularFile(journalFile)) {
+            return records;
+        }
+        byte[] content = Files.readAllBytes(journalFile);
+        int last = content.length;
+        while (last > 0 && content[last - 1] != '\n') {
+            last--;
+        }
+        if (last < content.length) {
+            AbstractConfig.LOGGER.warn("Ignoring incomplete last record of journal {}!", journalFile);
+        }
+        try (BufferedReader reader = new BufferedReader(new StringReader(new String(content, 0, last, StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    records.add(line.substring(space + 1));
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @param line a record
+     * @return the version of the record or <code>-1</code> if it has none
+     */
+    private static long recordVersion(String line) {
+        int space = line.indexOf(' ');
+        try {
+            return space > 0 ? Long.parseLong(line.substring(0, space)) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes the queued records and closes the journal for good.
+     * @throws IOException If writing or closing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writeQueued();
+        } finally {
+            synchronized (queued) {
+                closed = true;
+                queued.clear();
+            }
+            closeChannel();
+        }
+    }
+
+    /**
+     * Closes the channel, it's opened again by the next write.
+     * @throws IOException If closing fails.
+     */
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * A record waiting to be written.
+     * @param version the version of the snapshot holding the changes
+     * @param changes the changed values as a single line of JSON
+     */
+    private record Record(long version, String changes) {
+    }
+}
@@ -0,0 +1,40 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers the coalesced change notifications of all configs with listeners once per tick.
+ * @see AbstractConfig#subscribe(java.util.function.Consumer)
+ */
+final class ConfigListeners {
+
+    /**
+     * the configs that have or had listeners
+     */
+    private static final Set<AbstractConfig> CONFIGS = ConcurrentHashMap.newKeySet();
+
+    private ConfigListeners() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Makes sure the listeners of the given config are notified each tick.
+     * @param config a config that got a listener
+     */
+    static void track(@NotNull AbstractConfig config) {
+        CONFIGS.add(config);
+    }
+
+    /**
+     * Notifies the listeners of all changes since the last tick. Called on the server thread at the end of each tick,
+     * or on the client thread if no integrated server is running.
+     */
+    static void dispatch() {
+        for (AbstractConfig config : CONFIGS) {
+            config.notifyListeners();
+        }
+    }
+}
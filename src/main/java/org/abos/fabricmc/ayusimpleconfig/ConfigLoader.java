@@ -0,0 +1,92 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.server.MinecraftServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads all registered configs when the server has started. The files are read and parsed in parallel,
+ * afterwards the values are applied to the configs and game rules in one pass on the server thread.
+ * This way the start is only delayed by the slowest file instead of the sum of all files.
+ */
+public final class ConfigLoader {
+
+    private static final Map<AbstractConfig, Path> CONFIGS = new LinkedHashMap<>();
+
+    private ConfigLoader() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Registers a config to be loaded from the specified file whenever the server has started.
+     * Use this instead of calling {@link AbstractConfig#loadFrom(Path, MinecraftServer)} on
+     * {@link net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents#SERVER_STARTED} yourself.
+     * @param config the config to load, needs to be initialized before the server starts
+     * @param file the file to load from
+     */
+    public static synchronized void register(@NotNull AbstractConfig config, @NotNull Path file) {
+        CONFIGS.put(Objects.requireNonNull(config), Objects.requireNonNull(file));
+    }
+
+    /**
+     * Loads all registered configs. Called on the server thread once the server has started.
+     * @param server the started server
+     */
+    static void loadAll(@NotNull MinecraftServer server) {
+        List<Map.Entry<AbstractConfig, Path>> configs;
+        synchronized (ConfigLoader.class) {
+            configs = new ArrayList<>(CONFIGS.entrySet());
+        }
+        if (configs.isEmpty()) {
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.min(configs.size(), Math.max(2, Runtime.getRuntime().availableProcessors())));
+        try {
+            List<CompletableFuture<Object[]>> parsed = new ArrayList<>(configs.size());
+            for (Map.Entry<AbstractConfig, Path> entry : configs) {
+                parsed.add(CompletableFuture.supplyAsync(() -> read(entry.getKey(), entry.getValue()), pool));
+            }
+            for (int i = 0; i < configs.size(); i++) {
+                Object[] values = parsed.get(i).join();
+                if (values == null) {
+                    continue;
+                }
+                Path file = configs.get(i).getValue();
+                try {
+                    configs.get(i).getKey().applyLoadedValues(file, values, server);
+                } catch (IOException | IllegalArgumentException e) {
+                    AbstractConfig.LOGGER.warn("Config file {} couldn't be applied: {}", file, e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Reads the values of a config from its file without setting them.
+     * @return the values or <code>null</code> if the file couldn't be read
+     */
+    private static Object[] read(AbstractConfig config, Path file) {
+        if (!Files.isReadable(file)) {
+            AbstractConfig.LOGGER.warn("No readable config file {} found!", file);
+            return null;
+        }
+        try {
+            return config.readValues(file);
+        } catch (IOException | RuntimeException e) {
+            AbstractConfig.LOGGER.warn("Config file {} couldn't be read!", file);
+            return null;
+        }
+    }
+}
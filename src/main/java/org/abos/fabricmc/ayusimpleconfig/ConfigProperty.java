@@ -1,12 +1,23 @@
 package org.abos.fabricmc.ayusimpleconfig;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.GameRules;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * An abstract configuration property. Can save default values and optionally declare a property as a game rule.
@@ -14,25 +25,90 @@ import java.util.Objects;
  * @param <R> The rule type corresponding to <code>T</code>.
  * @see IntConfigProperty
  * @see BooleanConfigProperty
+ * @see LongConfigProperty
+ * @see DoubleConfigProperty
+ * @see EnumConfigProperty
  */
 public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
 
+    /**
+     * the name of this property, interned so properties with the same name share the string
+     */
     private final String name;
 
+    /**
+     * the namespace of this property, interned like {@link #name}
+     */
     private final String namespace;
 
     /**
-     * the cached value
+     * the name of the game rule, <code>namespace.name</code> or just the name if there is no namespace
      */
-    private T value;
+    private final String ruleName;
 
     private final T defaultValue;
 
     private final boolean withGameRule;
 
+    private final GameRules.Category ruleCategory;
+
+    /**
+     * the cached value
+     */
+    private T value;
+
+    /**
+     * the game rules the cached value currently mirrors, <code>null</code> if it doesn't mirror any
+     */
+    private GameRules syncedRules;
+
+    /**
+     * the game rules the rule of this property was last found missing in, <code>null</code> if none
+     */
+    private GameRules missingRules;
+
     protected GameRules.Key<R> ruleKey;
 
-    private final GameRules.Category ruleCategory;
+    /**
+     * the config this property belongs to, <code>null</code> until that config has been initialized
+     */
+    private AbstractConfig config;
+
+    /**
+     * the position of this property in its config, <code>-1</code> until that config has been initialized
+     */
+    private int index = -1;
+
+    /**
+     * the codec to save and load this property with, <code>null</code> until its config has been initialized
+     */
+    private PropertyCodec<T> codec;
+
+    /**
+     * if the cached value changed since the config was last saved or loaded, guarded by the config
+     */
+    private boolean dirty;
+
+    /**
+     * counts the reads of this property, <code>null</code> unless read counting is enabled for its config
+     * @see AbstractConfig#setReadCounting(boolean)
+     */
+    private LongAdder readCounter;
+
+    /**
+     * counts how often the rule of this property couldn't be found
+     */
+    private final LongAdder ruleLookupFailures = new LongAdder();
+
+    /**
+     * what happens when an invalid value is loaded
+     */
+    private volatile InvalidValuePolicy invalidValuePolicy = InvalidValuePolicy.REJECT;
+
+    /**
+     * the call site behind {@link #getConstantHandle()}, <code>null</code> until that method is called, guarded by this
+     */
+    private MutableCallSite constantSite;
 
     /**
      * Creates a new {@link ConfigProperty}.
@@ -47,12 +123,13 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
      * @see #validate(Object)
      */
     protected ConfigProperty(@NotNull String name, @Nullable String namespace, @NotNull T defaultValue, boolean withGameRule, GameRules.Category ruleCategory) {
-        this.name = Objects.requireNonNull(name);
-        this.namespace = namespace;
+        this.name = name.intern();
+        this.namespace = namespace == null ? null : namespace.intern();
+        this.ruleName = namespace == null ? this.name : (namespace + "." + name).intern();
         this.defaultValue = Objects.requireNonNull(defaultValue);
-        resetValue();
         this.withGameRule = withGameRule;
         this.ruleCategory = ruleCategory;
+        resetValue();
     }
 
     /**
@@ -97,12 +174,12 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
         return namespace;
     }
 
+    /**
+     * @return the name of the game rule, computed once when this property was created
+     */
     @NotNull
     public String getRuleName() {
-        if (getNamespace() == null) {
-            return getName();
-        }
-        return getNamespace() + "." + getName();
+        return ruleName;
     }
 
     /**
@@ -115,6 +192,7 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
 
     /**
      * Returns the value from the given rule. Use {@link #getValue(World)} instead of this method.
+     * Missing rules shouldn't be logged here, that's done once per world by {@link #syncWithRule(World)}.
      * @return the rule value or <code>null</code> if the rule couldn't be found
      * @throws IllegalStateException If this method is called but {@link #isWithGameRule()} returns <code>false</code>.
      * @see #getValue(World)
@@ -130,15 +208,81 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
      */
     @NotNull
     public T getValue(@Nullable World world) {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(world);
+        if (tick != null) {
+            return tick.get(this);
+        }
         if (isWithGameRule() && world != null) {
-            T rVal = getRuleValue(world);
-            if (rVal == null) {
-                AbstractConfig.LOGGER.warn("Rule "+getRuleName()+" couldn't be found!");
-                return value;
+            syncWithRule(world);
+        }
+        return getCachedValue();
+    }
+
+    /**
+     * Returns the snapshot reads should return values from instead of the cached value or the rule.
+     * Subclasses should check this in their accessors.
+     * @param world the world to read for, can be <code>null</code>
+     * @return the tick snapshot or <code>null</code> if tick snapshots are disabled or no tick started yet
+     * @see AbstractConfig#setTickSnapshots(boolean)
+     */
+    @Nullable
+    protected final ConfigSnapshot tickSnapshot(@Nullable World world) {
+        AbstractConfig config = this.config;
+        return config == null ? null : config.tickSnapshot(world);
+    }
+
+    /**
+     * Makes sure the cached value mirrors the rule of the given world. The rule is only looked up if the world's
+     * game rules differ from the ones seen last, e.g. after a world (re)load. Afterwards the cached value is kept up to
+     * date by the rule's change callback, see {@link #onRuleChanged(MinecraftServer, Object)}.
+     * If the rule cannot be found, this is remembered for the world's game rules, so the lookup and its warning
+     * only happen once per property and world load.
+     * Client worlds are skipped: their game rules aren't synced by the server, so the cached value, which holds
+     * the value synced by {@link ConfigSync} or the one of the integrated server, is authoritative there.
+     * @param world the world whose rule should be mirrored
+     * @return <code>true</code> if the cached value mirrors the rule, <code>false</code> if the rule couldn't be found
+     * or the world is a client world
+     * @throws IllegalStateException If this method is called but {@link #isWithGameRule()} returns <code>false</code>.
+     */
+    protected boolean syncWithRule(@NotNull World world) throws IllegalStateException {
+        if (world.isClient()) {
+            return false;
+        }
+        GameRules rules = world.getGameRules();
+        if (rules == syncedRules) {
+            return true;
+        }
+        if (rules == missingRules) {
+            return false;
+        }
+        T rVal = getRuleValue(world);
+        if (rVal == null) {
+            missingRules = rules;
+            ruleLookupFailures.increment();
+            ConfigEvents.RuleLookupFailed event = new ConfigEvents.RuleLookupFailed();
+            if (event.shouldCommit()) {
+                event.rule = getRuleName();
+                event.commit();
             }
-            return value = rVal;
+            AbstractConfig.LOGGER.warn("Rule {} couldn't be found in {}, the cached value will be used!", getRuleName(), world.getRegistryKey().getValue());
+            return false;
         }
-        return value;
+        missingRules = null;
+        updateCachedValue(rVal);
+        syncedRules = rules;
+        return true;
+    }
+
+    /**
+     * Called by the game rule whenever its value changes, see {@link #registerRule()}.
+     * Updates the cached value so reads don't need to look up the rule.
+     * @param server the server the rule changed on
+     * @param value the new rule value
+     */
+    protected void onRuleChanged(@NotNull MinecraftServer server, @NotNull T value) {
+        updateCachedValue(value);
+        syncedRules = server.getGameRules();
     }
 
     /**
@@ -166,7 +310,9 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
      * @see #validate(Object)
      */
     public void setValue(@NotNull T value, @Nullable MinecraftServer server) throws IllegalArgumentException {
-        this.value = validate(value);
+        updateCachedValue(validate(value));
+        // the cache no longer mirrors the rule unless the rule gets updated as well
+        syncedRules = null;
         if (isWithGameRule() && server != null) {
             setRuleValue(value, server);
         }
@@ -186,7 +332,366 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
      * Resets the cached value to the default value. Rule values are not affected.
      */
     public void resetValue() {
-        value = getDefaultValue();
+        updateCachedValue(getDefaultValue());
+        syncedRules = null;
+    }
+
+    /**
+     * Returns the cached value without looking at any game rule. Subclasses that store the value themselves,
+     * e.g. unboxed, must override this together with {@link #setCachedValue(Object)}.
+     * @return the cached value
+     */
+    @NotNull
+    protected T getCachedValue() {
+        return value;
+    }
+
+    /**
+     * Sets the cached value without validating it or touching any game rule.
+     * Note that this method is already called from the constructor.
+     * @param value the new cached value
+     * @see #getCachedValue()
+     */
+    protected void setCachedValue(@NotNull T value) {
+        this.value = value;
+    }
+
+    /**
+     * Sets the cached value and lets the config know if it actually changed.
+     * @param value the new cached value
+     */
+    private void updateCachedValue(@NotNull T value) {
+        if (config == null) {
+            setCachedValue(value);
+            updateConstantHandle();
+            return;
+        }
+        if (value.equals(getCachedValue())) {
+            return;
+        }
+        setCachedValue(value);
+        updateConstantHandle();
+        config.onPropertyChanged(this);
+    }
+
+    /**
+     * Returns a method handle taking no arguments and returning the cached value, like {@link #getValue()}.
+     * Store it in a <code>static final</code> field and call it with <code>invokeExact</code>: the JIT then treats
+     * the value as a constant in compiled callers and only deoptimizes them when the cached value changes.
+     * This pays off for values that change rarely, e.g. once per server session, but makes every change expensive.
+     * @return a handle of type <code>()</code>{@link #getConstantType()}
+     */
+    @NotNull
+    public synchronized MethodHandle getConstantHandle() {
+        if (constantSite == null) {
+            constantSite = new MutableCallSite(constantTarget());
+        }
+        return constantSite.dynamicInvoker();
+    }
+
+    /**
+     * @return the return type of {@link #getConstantHandle()}, {@link Object} by default. Subclasses storing
+     * the value unboxed should return the primitive type.
+     */
+    @NotNull
+    protected Class<?> getConstantType() {
+        return Object.class;
+    }
+
+    /**
+     * @return a handle returning the current cached value
+     */
+    private MethodHandle constantTarget() {
+        return MethodHandles.constant(getConstantType(), getCachedValue());
+    }
+
+    /**
+     * Points the handle of {@link #getConstantHandle()} to the current cached value, if the handle exists.
+     */
+    private synchronized void updateConstantHandle() {
+        if (constantSite != null) {
+            constantSite.setTarget(constantTarget());
+            MutableCallSite.syncAll(new MutableCallSite[]{constantSite});
+        }
+    }
+
+    /**
+     * Binds this property to its config. Called by {@link AbstractConfig#initialize()}.
+     * @param config the config this property belongs to
+     * @param index the position of this property in the config
+     * @throws IllegalStateException If this property already belongs to another config.
+     */
+    void bind(@NotNull AbstractConfig config, int index) throws IllegalStateException {
+        if (this.config != null && this.config != config) {
+            throw new IllegalStateException(getName()+" already belongs to another config!");
+        }
+        this.config = config;
+        this.index = index;
+        codec = PropertyCodecs.resolve(this);
+    }
+
+    /**
+     * @return <code>true</code> if the value of this property changed since its config was last saved to or loaded from a file
+     */
+    public boolean isDirty() {
+        AbstractConfig config = this.config;
+        if (config == null) {
+            return false;
+        }
+        synchronized (config) {
+            return dirty;
+        }
+    }
+
+    /**
+     * Sets the dirty flag. Must only be called while holding the lock of the config.
+     * @param dirty the new dirty flag
+     * @see #isDirty()
+     */
+    void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    /**
+     * Counts a read of this property if read counting is enabled. Subclasses should call this from their accessors.
+     * @see AbstractConfig#setReadCounting(boolean)
+     */
+    protected final void countRead() {
+        LongAdder counter = readCounter;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @return how often this property has been read since read counting was enabled for its config,
+     * <code>0</code> if it isn't enabled
+     * @see AbstractConfig#setReadCounting(boolean)
+     */
+    public long getReadCount() {
+        LongAdder counter = readCounter;
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Enables or disables counting the reads of this property, resetting the count.
+     * @param enabled if reads should be counted
+     */
+    void setReadCounting(boolean enabled) {
+        readCounter = enabled ? new LongAdder() : null;
+    }
+
+    /**
+     * @return how often the rule of this property couldn't be found, so the cached value had to be used instead.
+     * Each world load is counted at most once.
+     */
+    public long getRuleLookupFailures() {
+        return ruleLookupFailures.sum();
+    }
+
+    /**
+     * @return the config this property belongs to or <code>null</code> if that config hasn't been initialized yet
+     */
+    @Nullable
+    public AbstractConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Subscribes a listener to changes of this property, notified on the server thread.
+     * @see #subscribe(Consumer, Executor)
+     */
+    public void subscribe(@NotNull Consumer<? super T> listener) throws IllegalStateException {
+        subscribe(listener, null);
+    }
+
+    /**
+     * Subscribes a listener to changes of this property, no matter if they come from setting the value, loading or
+     * the game rule. Changes are coalesced: the listener is called at most once per tick with the newest value,
+     * and only if it differs from the one it was last notified of.
+     * @param listener the listener
+     * @param executor Runs the notifications. Can be <code>null</code>, then the listener is called directly
+     *                 at the end of the tick on the server thread, or on the client thread if there is no server.
+     * @throws IllegalStateException If the config of this property hasn't been initialized yet.
+     * @see #unsubscribe(Consumer)
+     */
+    public void subscribe(@NotNull Consumer<? super T> listener, @Nullable Executor executor) throws IllegalStateException {
+        if (config == null) {
+            throw new IllegalStateException("Config of "+getName()+" hasn't been initialized yet!");
+        }
+        config.addListener(this, listener, executor);
+    }
+
+    /**
+     * Unsubscribes a listener from changes of this property.
+     * @param listener a listener previously passed to {@link #subscribe(Consumer, Executor)}
+     */
+    public void unsubscribe(@NotNull Consumer<? super T> listener) {
+        if (config != null) {
+            config.removeListener(this, listener);
+        }
+    }
+
+    /**
+     * @return the codec to save and load this property with or <code>null</code> if its config hasn't been initialized yet
+     * @see PropertyCodecs
+     */
+    @Nullable
+    public PropertyCodec<T> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Writes a value of this property, e.g. taken from a {@link ConfigSnapshot}, with this property's codec.
+     * @param writer the writer to write to
+     * @param value the value to write
+     * @throws IOException If writing fails.
+     */
+    @SuppressWarnings("unchecked")
+    void writeValue(@NotNull JsonWriter writer, @NotNull Object value) throws IOException {
+        codec.write(writer, (T) value);
+    }
+
+    /**
+     * Reads a value with this property's codec without setting it.
+     * @param reader the reader to read from
+     * @return the read value, not validated yet, or <code>null</code> if the value doesn't represent a value of this property
+     * @throws IOException If reading fails or the JSON is malformed.
+     * @see PropertyCodec#tryRead(JsonReader)
+     */
+    @Nullable
+    T readValue(@NotNull JsonReader reader) throws IOException {
+        return codec.tryRead(reader);
+    }
+
+    /**
+     * Turns a loaded value into the value to set according to the {@link #getInvalidValuePolicy() policy},
+     * without throwing for invalid values.
+     * @param value the loaded value or <code>null</code> if it couldn't be read
+     * @return the valid value to set or <code>null</code> if the current value should be kept
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    T sanitize(@Nullable Object value) {
+        ValidationStatus status = value == null ? ValidationStatus.INVALID : check((T) value);
+        if (status == ValidationStatus.VALID) {
+            return (T) value;
+        }
+        InvalidValuePolicy policy = invalidValuePolicy;
+        AbstractConfig.LOGGER.warn("Invalid config value for {} ({}), policy {} applies!", getName(), status, policy);
+        return switch (policy) {
+            case CLAMP -> status == ValidationStatus.INVALID ? getDefaultValue() : clamp((T) value);
+            case DEFAULT -> getDefaultValue();
+            case REJECT -> null;
+        };
+    }
+
+    /**
+     * Writes a value of this property in binary with this property's codec.
+     * @param out the output to write to
+     * @param value the value to write
+     * @throws IOException If writing fails.
+     * @see PropertyCodec#writeBinary(DataOutput, Object)
+     */
+    @SuppressWarnings("unchecked")
+    void writeBinary(@NotNull DataOutput out, @NotNull Object value) throws IOException {
+        codec.writeBinary(out, (T) value);
+    }
+
+    /**
+     * Reads a binary value with this property's codec without setting it.
+     * @param in the input to read from
+     * @return the read value, not validated yet
+     * @throws IOException If reading fails or the input is malformed.
+     */
+    @NotNull
+    T readBinary(@NotNull DataInput in) throws IOException {
+        return codec.readBinary(in);
+    }
+
+    /**
+     * Validates a value of unknown type.
+     * @param value the value to validate
+     * @throws IllegalArgumentException If validation of <code>value</code> fails.
+     * @see #validate(Object)
+     */
+    @SuppressWarnings("unchecked")
+    void validateValue(@NotNull Object value) throws IllegalArgumentException {
+        validate((T) value);
+    }
+
+    /**
+     * Sets a value previously read by {@link #readValue(JsonReader)} or validated by {@link #validateValue(Object)}, unless it equals the current value.
+     * This way neither the rule nor its change notifications are touched for unchanged values.
+     * @param value the new value
+     * @param server needed for accessing the game rule value
+     * @throws IllegalArgumentException If validation of <code>value</code> fails.
+     * @see #setValue(Object, MinecraftServer)
+     */
+    @SuppressWarnings("unchecked")
+    void applyValue(@NotNull Object value, @Nullable MinecraftServer server) throws IllegalArgumentException {
+        World world = server == null ? null : server.getOverworld();
+        // without the overworld the rule value is unknown, so it has to be set either way
+        if (isWithGameRule() && world != null) {
+            syncWithRule(world);
+        }
+        // compare with the cached value rather than getValue(World), which may return a tick snapshot
+        if ((server == null || world != null) && value.equals(getCachedValue())) {
+            return;
+        }
+        setValue((T) value, server);
+    }
+
+    /**
+     * @return the position of this property in its config or <code>-1</code> if that config hasn't been initialized yet
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Checks the given value like {@link #validate(Object)}, but returns the result instead of throwing.
+     * The default implementation catches the exception of {@link #validate(Object)}, so subclasses should override
+     * this method where loading many invalid values shouldn't pay for creating exceptions.
+     * @param value the value to check
+     * @return the result, {@link ValidationStatus#VALID} exactly when {@link #validate(Object)} wouldn't throw
+     */
+    @NotNull
+    public ValidationStatus check(@Nullable T value) {
+        try {
+            validate(value);
+            return ValidationStatus.VALID;
+        } catch (IllegalArgumentException e) {
+            return ValidationStatus.INVALID;
+        }
+    }
+
+    /**
+     * Returns the nearest valid value for a value that is {@link ValidationStatus#TOO_LOW} or {@link ValidationStatus#TOO_HIGH}.
+     * Properties with a range should override this, by default the default value is returned.
+     * @param value a value out of range
+     * @return a valid value
+     */
+    @NotNull
+    protected T clamp(@NotNull T value) {
+        return getDefaultValue();
+    }
+
+    /**
+     * @return what happens when an invalid value for this property is loaded, {@link InvalidValuePolicy#REJECT} by default
+     */
+    @NotNull
+    public InvalidValuePolicy getInvalidValuePolicy() {
+        return invalidValuePolicy;
+    }
+
+    /**
+     * Sets what happens when an invalid value for this property is loaded from a file. Loading never throws
+     * because of invalid values, they are logged and handled by this policy instead.
+     * @param policy the new policy
+     */
+    public void setInvalidValuePolicy(@NotNull InvalidValuePolicy policy) {
+        invalidValuePolicy = Objects.requireNonNull(policy);
     }
 
     /**
@@ -225,7 +730,8 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
     }
 
     /**
-     * Registers this property's game rule.
+     * Registers this property's game rule. Implementations should register {@link #onRuleChanged(MinecraftServer, Object)}
+     * as the rule's change callback.
      * @return the game rule key, which is also accessible via {@link #getRuleKey()} after calling this method
      * @throws IllegalStateException If this property is not a rule or if this method is called more than once.
      */
@@ -237,4 +743,14 @@ public abstract class ConfigProperty<T, R extends GameRules.Rule<R>> {
     public GameRules.Category getRuleCategory() {
         return ruleCategory;
     }
+
+    /**
+     * The rule type of properties that cannot be game rules. Never instantiated.
+     */
+    public abstract static class NoRule extends GameRules.Rule<NoRule> {
+
+        private NoRule() {
+            super(null);
+        }
+    }
 }
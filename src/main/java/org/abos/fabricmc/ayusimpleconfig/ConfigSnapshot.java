@@ -0,0 +1,105 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * An immutable view of all cached values of an {@link AbstractConfig} at one point in time.
+ * Snapshots are safe to share between threads, so worker threads can read several properties consistently
+ * while the server thread keeps changing them.
+ * @see AbstractConfig#snapshot()
+ */
+public final class ConfigSnapshot {
+
+    private final AbstractConfig config;
+
+    private final long version;
+
+    /**
+     * the cached values, indexed like the properties of the config
+     */
+    private final Object[] values;
+
+    ConfigSnapshot(@NotNull AbstractConfig config, long version, @NotNull Object[] values) {
+        this.config = Objects.requireNonNull(config);
+        this.version = version;
+        this.values = Objects.requireNonNull(values);
+    }
+
+    /**
+     * Copies this snapshot and only updates the given slots from the cached values of the properties,
+     * so a change of a few properties neither boxes nor reads the others.
+     * @param version the version of the new snapshot
+     * @param changed the indices of the properties that changed since this snapshot was taken
+     * @return the new snapshot
+     */
+    @NotNull
+    ConfigSnapshot withChanges(long version, @NotNull BitSet changed) {
+        ConfigProperty<?, ?>[] properties = config.getProperties();
+        Object[] copy = values.clone();
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            copy[i] = properties[i].getCachedValue();
+        }
+        return new ConfigSnapshot(config, version, copy);
+    }
+
+    /**
+     * @return the config this snapshot was taken of
+     */
+    @NotNull
+    public AbstractConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return the version of this snapshot, which increases with every change of the config
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the value the given property had when this snapshot was taken.
+     * @param property a property of the config of this snapshot
+     * @return the cached value of <code>property</code>
+     * @throws IllegalArgumentException If the property doesn't belong to the config of this snapshot.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NotNull ConfigProperty<T, ?> property) throws IllegalArgumentException {
+        if (property.getConfig() != config) {
+            throw new IllegalArgumentException(property.getName()+" doesn't belong to this config!");
+        }
+        return (T) values[property.getIndex()];
+    }
+
+    /**
+     * @see #get(ConfigProperty)
+     */
+    public int getInt(@NotNull IntConfigProperty property) throws IllegalArgumentException {
+        return get(property);
+    }
+
+    /**
+     * @see #get(ConfigProperty)
+     */
+    public long getLong(@NotNull LongConfigProperty property) throws IllegalArgumentException {
+        return get(property);
+    }
+
+    /**
+     * @see #get(ConfigProperty)
+     */
+    public double getDouble(@NotNull DoubleConfigProperty property) throws IllegalArgumentException {
+        return get(property);
+    }
+
+    /**
+     * @see #get(ConfigProperty)
+     */
+    public boolean getBoolean(@NotNull BooleanConfigProperty property) throws IllegalArgumentException {
+        return get(property);
+    }
+}
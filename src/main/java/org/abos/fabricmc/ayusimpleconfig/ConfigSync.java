@@ -0,0 +1,234 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Syncs the values of registered configs from the server to the clients. Each property is identified by its position
+ * in its config, so the configs need to be the same on both sides. A client gets all values once it is able to receive
+ * them, afterwards only the changed values are sent, at most once per tick and config.
+ * Values are written in binary by the properties' codecs, see {@link PropertyCodec#writeBinary(DataOutput, Object)}.
+ */
+public final class ConfigSync {
+
+    /**
+     * the channel all sync packets are sent on
+     */
+    public static final Identifier CHANNEL = new Identifier("ayusimpleconfig", "sync");
+
+    private static final byte FULL = 0;
+
+    private static final byte DELTA = 1;
+
+    /**
+     * the synced configs by namespace
+     */
+    private static final Map<String, Synced> CONFIGS = new LinkedHashMap<>();
+
+    private ConfigSync() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Registers a config to be synced. Call this from your {@link net.fabricmc.api.ModInitializer} after initializing
+     * the config, so it happens on both the server and the client.
+     * @param config the config to sync, identified by its {@link AbstractConfig#getNamespace() namespace}
+     * @throws IllegalStateException If the config hasn't been initialized yet or another config with the same
+     *                               namespace is already registered.
+     */
+    public static synchronized void register(@NotNull AbstractConfig config) throws IllegalStateException {
+        Synced synced = new Synced(Objects.requireNonNull(config));
+        if (CONFIGS.putIfAbsent(config.getNamespace(), synced) != null) {
+            throw new IllegalStateException("A config with namespace " + config.getNamespace() + " is already synced!");
+        }
+    }
+
+    /**
+     * Sends all values to a client once it has registered the sync channel. The values are sent from the server thread,
+     * so they line up with the changes sent each tick.
+     */
+    static void onChannelRegister(@NotNull ServerPlayNetworkHandler handler, @NotNull PacketSender sender,
+                                  @NotNull MinecraftServer server, @NotNull List<Identifier> channels) {
+        if (!channels.contains(CHANNEL)) {
+            return;
+        }
+        server.execute(() -> {
+            ServerPlayerEntity player = handler.getPlayer();
+            for (Synced synced : configs()) {
+                try {
+                    ServerPlayNetworking.send(player, CHANNEL, synced.encode(FULL, synced.sent));
+                } catch (IOException e) {
+                    AbstractConfig.LOGGER.warn("Config {} couldn't be synced!", synced.namespace);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the values that changed during the tick to all clients able to receive them. Called on the server thread
+     * at the end of each tick.
+     * @param server the ticking server
+     */
+    static void onEndTick(@NotNull MinecraftServer server) {
+        List<ServerPlayerEntity> players = null;
+        for (Synced synced : configs()) {
+            ConfigSnapshot current = synced.config.snapshot();
+            if (current == synced.sent) {
+                continue;
+            }
+            PacketByteBuf buf;
+            try {
+                buf = synced.encode(DELTA, current);
+            } catch (IOException e) {
+                AbstractConfig.LOGGER.warn("Config {} couldn't be synced!", synced.namespace);
+                continue;
+            }
+            synced.sent = current;
+            if (buf == null) {
+                continue;
+            }
+            if (players == null) {
+                players = new ArrayList<>();
+                for (ServerPlayerEntity player : PlayerLookup.all(server)) {
+                    if (ServerPlayNetworking.canSend(player, CHANNEL)) {
+                        players.add(player);
+                    }
+                }
+            }
+            for (ServerPlayerEntity player : players) {
+                ServerPlayNetworking.send(player, CHANNEL, PacketByteBufs.duplicate(buf));
+            }
+        }
+    }
+
+    /**
+     * Decodes a sync packet on the client.
+     * @param buf the received packet
+     * @return the action setting the received values, to be run on the client thread,
+     * or <code>null</code> if the packet doesn't match a registered config
+     * @throws IOException If the packet is malformed.
+     */
+    @Nullable
+    static Runnable receive(@NotNull PacketByteBuf buf) throws IOException {
+        byte kind = buf.readByte();
+        String namespace = buf.readString();
+        Synced synced;
+        synchronized (ConfigSync.class) {
+            synced = CONFIGS.get(namespace);
+        }
+        if (synced == null) {
+            AbstractConfig.LOGGER.debug("Received values for unknown config {}!", namespace);
+            return null;
+        }
+        if (buf.readInt() != synced.fingerprint) {
+            AbstractConfig.LOGGER.warn("Received values for config {} don't match the local one!", namespace);
+            return null;
+        }
+        ConfigProperty<?, ?>[] properties = synced.config.getProperties();
+        Object[] values = new Object[properties.length];
+        DataInput in = new ByteBufInputStream(buf);
+        int count = buf.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int index = kind == FULL ? i : buf.readVarInt();
+            if (index < 0 || index >= properties.length) {
+                throw new IOException("Invalid property id " + index + " for config " + namespace + "!");
+            }
+            values[index] = properties[index].readBinary(in);
+        }
+        return () -> synced.config.applySyncedValues(values);
+    }
+
+    /**
+     * Restores the local values of all synced configs once the client disconnected from a server.
+     * @see AbstractConfig#restoreLocalValues()
+     */
+    static void restoreLocalValues() {
+        for (Synced synced : configs()) {
+            synced.config.restoreLocalValues();
+        }
+    }
+
+    private static synchronized List<Synced> configs() {
+        return new ArrayList<>(CONFIGS.values());
+    }
+
+    /**
+     * A synced config and what was last sent of it.
+     */
+    private static final class Synced {
+
+        private final AbstractConfig config;
+
+        private final String namespace;
+
+        /**
+         * identifies the properties and codecs of the config, so clients with a different config ignore the values
+         */
+        private final int fingerprint;
+
+        /**
+         * the snapshot the clients have been sent, only accessed on the server thread
+         */
+        private ConfigSnapshot sent;
+
+        private Synced(AbstractConfig config) {
+            this.config = config;
+            this.namespace = config.getNamespace();
+            this.fingerprint = config.fingerprint();
+            this.sent = config.snapshot();
+        }
+
+        /**
+         * Encodes the given snapshot, either all values or only those differing from {@link #sent}.
+         * @param kind {@link #FULL} or {@link #DELTA}
+         * @param values the snapshot to encode
+         * @return the packet or <code>null</code> if no value differs
+         * @throws IOException If encoding fails.
+         */
+        private PacketByteBuf encode(byte kind, ConfigSnapshot values) throws IOException {
+            ConfigProperty<?, ?>[] properties = config.getProperties();
+            List<ConfigProperty<?, ?>> changed = new ArrayList<>();
+            for (ConfigProperty<?, ?> property : properties) {
+                if (kind == FULL || !values.get(property).equals(sent.get(property))) {
+                    changed.add(property);
+                }
+            }
+            if (changed.isEmpty() && kind == DELTA) {
+                return null;
+            }
+            PacketByteBuf buf = PacketByteBufs.create();
+            buf.writeByte(kind);
+            buf.writeString(namespace);
+            buf.writeInt(fingerprint);
+            buf.writeVarInt(changed.size());
+            DataOutput out = new ByteBufOutputStream(buf);
+            for (ConfigProperty<?, ?> property : changed) {
+                if (kind == DELTA) {
+                    buf.writeVarInt(property.getIndex());
+                }
+                property.writeBinary(out, values.get(property));
+            }
+            return buf;
+        }
+    }
+}
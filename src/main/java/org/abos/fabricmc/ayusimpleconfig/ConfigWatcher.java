@@ -0,0 +1,138 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.server.MinecraftServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a config file and reloads the config whenever the file changes.
+ * @see AbstractConfig#watch(Path, MinecraftServer)
+ */
+public final class ConfigWatcher implements Closeable {
+
+    /**
+     * how long the file has to stay untouched before it is reloaded, so editors saving in several steps
+     * cause only one reload
+     */
+    public static final long DEBOUNCE_MILLIS = 250;
+
+    private final AbstractConfig config;
+
+    private final Path file;
+
+    /**
+     * the watched file as absolute path, to find its directory
+     */
+    private final Path absoluteFile;
+
+    private final MinecraftServer server;
+
+    private final WatchService watchService;
+
+    ConfigWatcher(@NotNull AbstractConfig config, @NotNull Path file, @NotNull MinecraftServer server) throws IOException {
+        this.config = Objects.requireNonNull(config);
+        this.file = Objects.requireNonNull(file);
+        this.absoluteFile = file.toAbsolutePath();
+        this.server = Objects.requireNonNull(server);
+        watchService = FileSystems.getDefault().newWatchService();
+        try {
+            absoluteFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        Thread thread = new Thread(this::run, "ayusimpleconfig-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the watched file
+     */
+    @NotNull
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Waits for changes of the file until this watcher is closed.
+     */
+    private void run() {
+        try {
+            while (true) {
+                if (!awaitChange(watchService.take())) {
+                    continue;
+                }
+                // debounce: wait until the file stays untouched for a while
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    awaitChange(key);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed, nothing to do
+        }
+    }
+
+    /**
+     * Consumes the events of the given key.
+     * @param key a signalled key
+     * @return <code>true</code> if any of the events concerned the watched file
+     */
+    private boolean awaitChange(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && absoluteFile.getFileName().equals(path)) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Parses the file on this thread and hands the values to the server thread. Nothing happens if the file
+     * still holds exactly what the config last saved or loaded, e.g. if the change was the config's own save,
+     * as reloading would revert values changed since.
+     */
+    private void reload() {
+        if (config.isUnchanged(file)) {
+            return;
+        }
+        Object[] values;
+        try {
+            values = config.readValues(file);
+        } catch (IOException | RuntimeException e) {
+            AbstractConfig.LOGGER.warn("Changed config file " + file + " couldn't be read!");
+            return;
+        }
+        server.execute(() -> {
+            try {
+                config.applyLoadedValues(file, values, server);
+            } catch (IOException | IllegalArgumentException e) {
+                AbstractConfig.LOGGER.warn("Changed config file " + file + " couldn't be applied: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Stops watching the file.
+     * @throws IOException If the underlying watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,139 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A double configuration property. Can save default values and a range. Since vanilla Minecraft has no double game rules,
+ * this property cannot be declared as a game rule.
+ * Infinite values and NaN are never valid.
+ * @see ConfigProperty
+ */
+public class DoubleConfigProperty extends ConfigProperty<Double, ConfigProperty.NoRule> {
+
+    private final double minValue;
+
+    private final double maxValue;
+
+    /**
+     * the cached value, kept unboxed for {@link #getDouble()}
+     */
+    private double doubleValue;
+
+    /**
+     * Creates a new {@link DoubleConfigProperty}.
+     *
+     * @param name         the name of the property
+     * @param namespace    the namespace of the property
+     * @param defaultValue the default value
+     * @param minValue     the minimum value of this property
+     * @param maxValue     the maximum value of this property
+     */
+    public DoubleConfigProperty(@NotNull String name, @Nullable String namespace, @NotNull Double defaultValue, double minValue, double maxValue) {
+        super(name, namespace, defaultValue);
+        if (Double.isNaN(minValue) || Double.isNaN(maxValue) || maxValue < minValue) {
+            throw new IllegalArgumentException("Min value must be smaller than or equal to max value!");
+        }
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        validate(defaultValue);
+    }
+
+    /**
+     * @return the minimum value this property can attain
+     */
+    public double getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * @return the maximum value this property can attain
+     */
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @return the cached value, unlike {@link #getValue()} without boxing it
+     */
+    public double getDouble() {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(null);
+        if (tick != null) {
+            return tick.getDouble(this);
+        }
+        return doubleValue;
+    }
+
+    @Override
+    @NotNull
+    protected Double getCachedValue() {
+        return doubleValue;
+    }
+
+    @Override
+    protected void setCachedValue(@NotNull Double value) {
+        doubleValue = value;
+    }
+
+    @Override
+    @NotNull
+    protected Class<?> getConstantType() {
+        return double.class;
+    }
+
+    @Override
+    @Nullable
+    protected Double getRuleValue(@NotNull World world) throws IllegalStateException {
+        throw new IllegalStateException("This property doesn't have a rule!");
+    }
+
+    @Override
+    protected void setRuleValue(@NotNull Double value, @NotNull MinecraftServer server) throws IllegalStateException {
+        throw new IllegalStateException("This property doesn't have a rule!");
+    }
+
+    @Override
+    @NotNull
+    public ValidationStatus check(@Nullable Double value) {
+        if (value == null || !Double.isFinite(value)) {
+            return ValidationStatus.INVALID;
+        }
+        if (value < getMinValue()) {
+            return ValidationStatus.TOO_LOW;
+        }
+        if (value > getMaxValue()) {
+            return ValidationStatus.TOO_HIGH;
+        }
+        return ValidationStatus.VALID;
+    }
+
+    @Override
+    @NotNull
+    protected Double clamp(@NotNull Double value) {
+        return Math.max(getMinValue(), Math.min(getMaxValue(), value));
+    }
+
+    @Override
+    @NotNull
+    public Double validate(Double value) throws IllegalArgumentException {
+        if (value == null || !Double.isFinite(value)) {
+            throw new IllegalArgumentException("Value for "+getName()+" must be a finite number!");
+        }
+        if (value < getMinValue()) {
+            throw new IllegalArgumentException(getName()+" value must be greater than or equal to "+getMinValue()+"!");
+        }
+        if (value > getMaxValue()) {
+            throw new IllegalArgumentException(getName()+" value must be smaller than or equal to "+getMaxValue()+"!");
+        }
+        return value;
+    }
+
+    @Override
+    public GameRules.Key<NoRule> registerRule() throws IllegalStateException {
+        throw new IllegalStateException("Only rules can be registered! "+getName()+" is not a rule!");
+    }
+}
@@ -0,0 +1,102 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.fabricmc.fabric.api.gamerule.v1.GameRuleFactory;
+import net.fabricmc.fabric.api.gamerule.v1.GameRuleRegistry;
+import net.fabricmc.fabric.api.gamerule.v1.rule.EnumRule;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An enum configuration property. Can save default values and optionally declare a property as a game rule.
+ * @param <E> The enum type of the property.
+ * @see ConfigProperty
+ */
+public class EnumConfigProperty<E extends Enum<E>> extends ConfigProperty<E, EnumRule<E>> {
+
+    /**
+     * Creates a new {@link EnumConfigProperty} that is not a game rule.
+     *
+     * @param name         the name of the property
+     * @param namespace    the namespace of the property
+     * @param defaultValue the default value, which also determines the enum type
+     * @see #EnumConfigProperty(String, String, Enum, GameRules.Category)
+     */
+    public EnumConfigProperty(@NotNull String name, @Nullable String namespace, @NotNull E defaultValue) {
+        super(name, namespace, defaultValue);
+    }
+
+    /**
+     * Creates a new {@link EnumConfigProperty} which is also a game rule.
+     *
+     * @param name         the name of the property and also of the game rule
+     * @param namespace    the namespace of the property
+     * @param defaultValue the default value, which also determines the enum type
+     * @param ruleCategory the category of the rule
+     * @see #EnumConfigProperty(String, String, Enum)
+     */
+    public EnumConfigProperty(@NotNull String name, @Nullable String namespace, @NotNull E defaultValue, @NotNull GameRules.Category ruleCategory) {
+        super(name, namespace, defaultValue, ruleCategory);
+    }
+
+    /**
+     * @return the enum type of this property
+     */
+    @NotNull
+    public Class<E> getEnumClass() {
+        return getDefaultValue().getDeclaringClass();
+    }
+
+    @Override
+    @Nullable
+    protected E getRuleValue(@NotNull World world) throws IllegalStateException {
+        if (!isWithGameRule()) {
+            throw new IllegalStateException("This property doesn't have a rule!");
+        }
+        EnumRule<E> rule = world.getGameRules().get(getRuleKey());
+        if (rule == null) {
+            return null;
+        }
+        return rule.get();
+    }
+
+    @Override
+    protected void setRuleValue(@NotNull E value, @NotNull MinecraftServer server) throws IllegalStateException {
+        EnumRule<E> rule = getRule(server.getOverworld());
+        if (rule != null) {
+            rule.set(value, server);
+        }
+        else {
+            AbstractConfig.LOGGER.warn("Rule {} couldn't be found!", getRuleName());
+        }
+    }
+
+    @Override
+    @NotNull
+    public ValidationStatus check(@Nullable E value) {
+        return value == null || !getEnumClass().isInstance(value) ? ValidationStatus.INVALID : ValidationStatus.VALID;
+    }
+
+    @Override
+    @NotNull
+    public E validate(E value) throws IllegalArgumentException {
+        if (value == null || !getEnumClass().isInstance(value)) {
+            throw new IllegalArgumentException("Value for "+getName()+" must be a "+getEnumClass().getSimpleName()+" constant!");
+        }
+        return value;
+    }
+
+    @Override
+    public GameRules.Key<EnumRule<E>> registerRule() throws IllegalStateException {
+        if (!isWithGameRule()) {
+            throw new IllegalStateException("Only rules can be registered! "+getName()+" is not a rule!");
+        }
+        if (ruleKey != null) {
+            throw new IllegalStateException("Attempted to register "+getRuleName()+" twice!");
+        }
+        return ruleKey = GameRuleRegistry.register(getRuleName(), getRuleCategory(), GameRuleFactory.createEnumRule(getDefaultValue(),
+                (server, rule) -> onRuleChanged(server, rule.get())));
+    }
+}
@@ -0,0 +1,65 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A set of boolean properties of one config, tested at once against the config's packed values.
+ * @see AbstractConfig#mask(BooleanConfigProperty...)
+ */
+public final class FlagMask {
+
+    private final AbstractConfig config;
+
+    /**
+     * the masked bits, indexed like the bitset of the config
+     */
+    private final long[] bits;
+
+    /**
+     * the first word with a masked bit, so tests of few flags only touch the words they need
+     */
+    private final int first;
+
+    FlagMask(@NotNull AbstractConfig config, @NotNull long[] bits) {
+        this.config = config;
+        int last = bits.length;
+        while (last > 0 && bits[last - 1] == 0) {
+            last--;
+        }
+        int first = 0;
+        while (first < last && bits[first] == 0) {
+            first++;
+        }
+        this.bits = Arrays.copyOf(bits, last);
+        this.first = first;
+    }
+
+    /**
+     * @return the config this mask belongs to
+     */
+    @NotNull
+    public AbstractConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @param config the config about to be tested
+     * @return the masked bits, without trailing empty words
+     * @throws IllegalArgumentException If this mask belongs to another config.
+     */
+    long[] bits(AbstractConfig config) throws IllegalArgumentException {
+        if (config != this.config) {
+            throw new IllegalArgumentException("Mask doesn't belong to this config!");
+        }
+        return bits;
+    }
+
+    /**
+     * @return the first word with a masked bit
+     */
+    int first() {
+        return first;
+    }
+}
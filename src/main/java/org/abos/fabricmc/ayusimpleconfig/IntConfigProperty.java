@@ -20,6 +20,17 @@ public class IntConfigProperty extends ConfigProperty<Integer, GameRules.IntRule
 
     private final int maxValue;
 
+    /**
+     * the array holding the cached value at {@link #slot}, shared with the other int properties of the config
+     * once it has been initialized
+     */
+    private int[] values;
+
+    /**
+     * the position of the cached value in {@link #values}
+     */
+    private int slot;
+
     /**
      * Creates a new {@link IntConfigProperty}.
      *
@@ -86,6 +97,71 @@ public class IntConfigProperty extends ConfigProperty<Integer, GameRules.IntRule
         return maxValue;
     }
 
+    /**
+     * Returns the value from the given rule if it exists or the cached value. Unlike {@link #getValue(World)}
+     * this method doesn't box the value.
+     * @param world needed for accessing the game rule value
+     * @return the cached value if the game rule doesn't exist, wasn't accessible or <code>world</code> was <code>null</code>,
+     * else the game rule value
+     * @see #getValue(World)
+     */
+    public int getInt(@Nullable World world) {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(world);
+        if (tick != null) {
+            return tick.getInt(this);
+        }
+        if (isWithGameRule() && world != null) {
+            syncWithRule(world);
+        }
+        return values[slot];
+    }
+
+    /**
+     * @return the cached value
+     * @see #getInt(World)
+     */
+    public int getInt() {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(null);
+        if (tick != null) {
+            return tick.getInt(this);
+        }
+        return values[slot];
+    }
+
+    @Override
+    @NotNull
+    protected Integer getCachedValue() {
+        return values[slot];
+    }
+
+    @Override
+    protected void setCachedValue(@NotNull Integer value) {
+        if (values == null) {
+            // called from the super constructor
+            values = new int[1];
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Moves the cached value into the packed storage of the config. Called by {@link AbstractConfig#initialize()}.
+     * @param values the int values of the config
+     * @param slot the position of this property's value
+     */
+    void pack(@NotNull int[] values, int slot) {
+        values[slot] = this.values[this.slot];
+        this.values = values;
+        this.slot = slot;
+    }
+
+    @Override
+    @NotNull
+    protected Class<?> getConstantType() {
+        return int.class;
+    }
+
     @Override
     @Nullable
     protected Integer getRuleValue(@NotNull World world) throws IllegalStateException {
@@ -94,7 +170,6 @@ public class IntConfigProperty extends ConfigProperty<Integer, GameRules.IntRule
         }
         GameRules.IntRule rule = world.getGameRules().get(getRuleKey());
         if (rule == null) {
-            AbstractConfig.LOGGER.warn("Rule "+getRuleName()+" couldn't be found!");
             return null;
         }
         return rule.get();
@@ -107,10 +182,31 @@ public class IntConfigProperty extends ConfigProperty<Integer, GameRules.IntRule
             rule.set(value, server);
         }
         else {
-            AbstractConfig.LOGGER.warn("Rule "+getRuleName()+" couldn't be found!");
+            AbstractConfig.LOGGER.warn("Rule {} couldn't be found!", getRuleName());
         }
     }
 
+    @Override
+    @NotNull
+    public ValidationStatus check(@Nullable Integer value) {
+        if (value == null) {
+            return ValidationStatus.INVALID;
+        }
+        if (value < getMinValue()) {
+            return ValidationStatus.TOO_LOW;
+        }
+        if (value > getMaxValue()) {
+            return ValidationStatus.TOO_HIGH;
+        }
+        return ValidationStatus.VALID;
+    }
+
+    @Override
+    @NotNull
+    protected Integer clamp(@NotNull Integer value) {
+        return Math.max(getMinValue(), Math.min(getMaxValue(), value));
+    }
+
     @Override
     @NotNull
     public Integer validate(Integer value) throws IllegalArgumentException {
@@ -131,6 +227,7 @@ public class IntConfigProperty extends ConfigProperty<Integer, GameRules.IntRule
         if (ruleKey != null) {
             throw new IllegalStateException("Attempted to register "+getRuleName()+" twice!");
         }
-        return ruleKey = GameRuleRegistry.register(getRuleName(), getRuleCategory(), GameRuleFactory.createIntRule(getDefaultValue()));
+        return ruleKey = GameRuleRegistry.register(getRuleName(), getRuleCategory(), GameRuleFactory.createIntRule(getDefaultValue(),
+                (server, rule) -> onRuleChanged(server, rule.get())));
     }
 }
@@ -0,0 +1,19 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+/**
+ * What happens when an invalid value for a property is loaded, see {@link ConfigProperty#setInvalidValuePolicy(InvalidValuePolicy)}.
+ */
+public enum InvalidValuePolicy {
+    /**
+     * values out of range are clamped to the nearest valid value, other invalid values are replaced by the default value
+     */
+    CLAMP,
+    /**
+     * invalid values are replaced by the default value
+     */
+    DEFAULT,
+    /**
+     * invalid values are skipped, so the property keeps its current value
+     */
+    REJECT
+}
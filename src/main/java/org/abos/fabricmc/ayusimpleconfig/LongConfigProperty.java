@@ -0,0 +1,138 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A long configuration property. Can save default values and a range. Since Minecraft has no long game rules,
+ * this property cannot be declared as a game rule.
+ * @see ConfigProperty
+ */
+public class LongConfigProperty extends ConfigProperty<Long, ConfigProperty.NoRule> {
+
+    private final long minValue;
+
+    private final long maxValue;
+
+    /**
+     * the cached value, kept unboxed for {@link #getLong()}
+     */
+    private long longValue;
+
+    /**
+     * Creates a new {@link LongConfigProperty}.
+     *
+     * @param name         the name of the property
+     * @param namespace    the namespace of the property
+     * @param defaultValue the default value
+     * @param minValue     the minimum value of this property
+     * @param maxValue     the maximum value of this property
+     */
+    public LongConfigProperty(@NotNull String name, @Nullable String namespace, @NotNull Long defaultValue, long minValue, long maxValue) {
+        super(name, namespace, defaultValue);
+        if (maxValue < minValue) {
+            throw new IllegalArgumentException("Min value must be smaller than or equal to max value!");
+        }
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        validate(defaultValue);
+    }
+
+    /**
+     * @return the minimum value this property can attain
+     */
+    public long getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * @return the maximum value this property can attain
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @return the cached value, unlike {@link #getValue()} without boxing it
+     */
+    public long getLong() {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(null);
+        if (tick != null) {
+            return tick.getLong(this);
+        }
+        return longValue;
+    }
+
+    @Override
+    @NotNull
+    protected Long getCachedValue() {
+        return longValue;
+    }
+
+    @Override
+    protected void setCachedValue(@NotNull Long value) {
+        longValue = value;
+    }
+
+    @Override
+    @NotNull
+    protected Class<?> getConstantType() {
+        return long.class;
+    }
+
+    @Override
+    @Nullable
+    protected Long getRuleValue(@NotNull World world) throws IllegalStateException {
+        throw new IllegalStateException("This property doesn't have a rule!");
+    }
+
+    @Override
+    protected void setRuleValue(@NotNull Long value, @NotNull MinecraftServer server) throws IllegalStateException {
+        throw new IllegalStateException("This property doesn't have a rule!");
+    }
+
+    @Override
+    @NotNull
+    public ValidationStatus check(@Nullable Long value) {
+        if (value == null) {
+            return ValidationStatus.INVALID;
+        }
+        if (value < getMinValue()) {
+            return ValidationStatus.TOO_LOW;
+        }
+        if (value > getMaxValue()) {
+            return ValidationStatus.TOO_HIGH;
+        }
+        return ValidationStatus.VALID;
+    }
+
+    @Override
+    @NotNull
+    protected Long clamp(@NotNull Long value) {
+        return Math.max(getMinValue(), Math.min(getMaxValue(), value));
+    }
+
+    @Override
+    @NotNull
+    public Long validate(Long value) throws IllegalArgumentException {
+        if (value == null) {
+            throw new IllegalArgumentException("Value for "+getName()+" must be a number!");
+        }
+        if (value < getMinValue()) {
+            throw new IllegalArgumentException(getName()+" value must be greater than or equal to "+getMinValue()+"!");
+        }
+        if (value > getMaxValue()) {
+            throw new IllegalArgumentException(getName()+" value must be smaller than or equal to "+getMaxValue()+"!");
+        }
+        return value;
+    }
+
+    @Override
+    public GameRules.Key<NoRule> registerRule() throws IllegalStateException {
+        throw new IllegalStateException("Only rules can be registered! "+getName()+" is not a rule!");
+    }
+}
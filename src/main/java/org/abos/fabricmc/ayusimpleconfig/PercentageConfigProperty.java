@@ -1,11 +1,13 @@
 package org.abos.fabricmc.ayusimpleconfig;
 
+import net.minecraft.util.math.random.Random;
 import net.minecraft.world.GameRules;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
+import java.util.random.RandomGenerator;
 
 /**
  * A percentage configuration property, which is really just an integer configuration property in disguise.
@@ -15,6 +17,27 @@ import java.util.Objects;
  */
 public class PercentageConfigProperty extends IntConfigProperty {
 
+    /**
+     * the number of fractional bits of {@link #getFixedPointValue(World)}
+     */
+    public static final int FIXED_POINT_SHIFT = 16;
+
+    /**
+     * the largest percentage whose fixed-point form fits into an int, larger values saturate,
+     * see {@link #getFixedPointValue(World)}
+     */
+    public static final int MAX_FIXED_POINT_PERCENT = (int) (((long) Integer.MAX_VALUE * 100) >> FIXED_POINT_SHIFT);
+
+    /**
+     * the cached value divided by 100, recomputed whenever the cached value changes
+     */
+    private double decimalValue;
+
+    /**
+     * the cached value divided by 100 in fixed-point representation, recomputed whenever the cached value changes
+     */
+    private int fixedPointValue;
+
     /**
      * Creates a new {@link PercentageConfigProperty}.
      *
@@ -61,11 +84,36 @@ public class PercentageConfigProperty extends IntConfigProperty {
         this(name, namespace, defaultValue, minValue, maxValue, true, Objects.requireNonNull(ruleCategory));
     }
 
+    @Override
+    protected void setCachedValue(@NotNull Integer value) {
+        super.setCachedValue(value);
+        decimalValue = value / 100d;
+        fixedPointValue = toFixedPoint(value);
+    }
+
+    /**
+     * @param percent a percentage
+     * @return <code>percent/100</code> as fixed-point number with {@link #FIXED_POINT_SHIFT} fractional bits,
+     * saturated to the int range
+     */
+    private static int toFixedPoint(int percent) {
+        long fixedPoint = ((long) percent << FIXED_POINT_SHIFT) / 100;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, fixedPoint));
+    }
+
     /**
      * @return {@link #getValue(World)}<code>/100d</code>
      */
     public double getDecimalValue(World world) {
-        return getValue(world) / 100d;
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(world);
+        if (tick != null) {
+            return tick.getInt(this) / 100d;
+        }
+        if (isWithGameRule() && world != null) {
+            syncWithRule(world);
+        }
+        return decimalValue;
     }
 
     /**
@@ -74,4 +122,81 @@ public class PercentageConfigProperty extends IntConfigProperty {
     public double getDecimalValue() {
         return getDecimalValue(null);
     }
+
+    /**
+     * Note that the 16.16 form only represents percentages up to {@link #MAX_FIXED_POINT_PERCENT}
+     * in magnitude, values beyond saturate to {@link Integer#MAX_VALUE} or {@link Integer#MIN_VALUE}.
+     * @return {@link #getValue(World)}<code>/100</code> as fixed-point number with {@link #FIXED_POINT_SHIFT} fractional bits,
+     * rounded towards zero
+     */
+    public int getFixedPointValue(World world) {
+        countRead();
+        ConfigSnapshot tick = tickSnapshot(world);
+        if (tick != null) {
+            return toFixedPoint(tick.getInt(this));
+        }
+        if (isWithGameRule() && world != null) {
+            syncWithRule(world);
+        }
+        return fixedPointValue;
+    }
+
+    /**
+     * @see #getFixedPointValue(World)
+     */
+    public int getFixedPointValue() {
+        return getFixedPointValue(null);
+    }
+
+    /**
+     * Applies this percentage to the given amount using integer arithmetic only.
+     * @param amount the amount to take the percentage of
+     * @param world needed for accessing the game rule value
+     * @return <code>amount * </code>{@link #getInt(World)}<code> / 100</code>, rounded towards zero
+     * and saturated to the int range
+     */
+    public int applyTo(int amount, World world) {
+        long result = (long) amount * getInt(world) / 100;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, result));
+    }
+
+    /**
+     * @see #applyTo(int, World)
+     */
+    public int applyTo(int amount) {
+        return applyTo(amount, null);
+    }
+
+    /**
+     * Rolls a chance of this percentage, i.e. values of 100 or more always succeed and values of 0 or less always fail.
+     * @param random the random number generator to use
+     * @param world needed for accessing the game rule value
+     * @return <code>true</code> if the roll succeeded
+     */
+    public boolean roll(@NotNull RandomGenerator random, World world) {
+        int percent = getInt(world);
+        return percent >= 100 || (percent > 0 && random.nextInt(100) < percent);
+    }
+
+    /**
+     * @see #roll(RandomGenerator, World)
+     */
+    public boolean roll(@NotNull RandomGenerator random) {
+        return roll(random, null);
+    }
+
+    /**
+     * @see #roll(RandomGenerator, World)
+     */
+    public boolean roll(@NotNull Random random, World world) {
+        int percent = getInt(world);
+        return percent >= 100 || (percent > 0 && random.nextInt(100) < percent);
+    }
+
+    /**
+     * @see #roll(Random, World)
+     */
+    public boolean roll(@NotNull Random random) {
+        return roll(random, null);
+    }
 }
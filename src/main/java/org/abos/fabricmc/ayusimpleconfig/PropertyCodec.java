@@ -0,0 +1,82 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Writes and reads the values of a {@link ConfigProperty} as JSON tokens and in a compact binary form. Codecs are registered per property class
+ * in {@link PropertyCodecs} and resolved once per property when the config is initialized.
+ * @param <T> The type of the property values.
+ * @see PropertyCodecs#register(Class, PropertyCodec)
+ */
+public interface PropertyCodec<T> {
+
+    /**
+     * Writes a single JSON value. The property name has already been written.
+     * @param writer the writer to write to
+     * @param value the value to write
+     * @throws IOException If writing fails.
+     */
+    void write(@NotNull JsonWriter writer, @NotNull T value) throws IOException;
+
+    /**
+     * Reads a single JSON value. The property name has already been read.
+     * @param reader the reader to read from
+     * @return the read value, which doesn't need to be validated yet
+     * @throws IOException If reading fails or the JSON is malformed.
+     * @throws RuntimeException If the next value doesn't represent a value of this codec's type.
+     */
+    @NotNull
+    T read(@NotNull JsonReader reader) throws IOException;
+
+    /**
+     * Reads a single JSON value like {@link #read(JsonReader)}, but returns <code>null</code> instead of throwing
+     * if the value doesn't represent a value of this codec's type. The value is consumed either way.
+     * By default this calls {@link #read(JsonReader)}, codecs should override it by peeking at the next token.
+     * @param reader the reader to read from
+     * @return the read value, which doesn't need to be validated yet, or <code>null</code>
+     * @throws IOException If reading fails or the JSON is malformed.
+     */
+    @Nullable
+    default T tryRead(@NotNull JsonReader reader) throws IOException {
+        return read(reader);
+    }
+
+    /**
+     * Writes a value in binary, e.g. to sync it to clients. By default the value is written as a JSON string,
+     * codecs of fixed size types should override this together with {@link #readBinary(DataInput)}.
+     * @param out the output to write to
+     * @param value the value to write
+     * @throws IOException If writing fails.
+     */
+    default void writeBinary(@NotNull DataOutput out, @NotNull T value) throws IOException {
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        writer.setLenient(true);
+        write(writer, value);
+        writer.flush();
+        out.writeUTF(json.toString());
+    }
+
+    /**
+     * Reads a value written by {@link #writeBinary(DataOutput, Object)}.
+     * @param in the input to read from
+     * @return the read value, which doesn't need to be validated yet
+     * @throws IOException If reading fails or the input is malformed.
+     * @throws RuntimeException If the input doesn't represent a value of this codec's type.
+     */
+    @NotNull
+    default T readBinary(@NotNull DataInput in) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(in.readUTF()));
+        reader.setLenient(true);
+        return read(reader);
+    }
+}
@@ -0,0 +1,293 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry of the {@link PropertyCodec}s used to save and load config properties. Codecs for the property types
+ * of this library are registered by default, other property types need to be registered before the configs
+ * using them are initialized.
+ */
+public final class PropertyCodecs {
+
+    /**
+     * the codec for {@link IntConfigProperty} and its subclasses
+     */
+    public static final PropertyCodec<Integer> INT = new PropertyCodec<>() {
+        @Override
+        public void write(@NotNull JsonWriter writer, @NotNull Integer value) throws IOException {
+            writer.value(value.intValue());
+        }
+
+        @Override
+        @NotNull
+        public Integer read(@NotNull JsonReader reader) throws IOException {
+            return reader.nextInt();
+        }
+
+        @Override
+        @Nullable
+        public Integer tryRead(@NotNull JsonReader reader) throws IOException {
+            if (reader.peek() != JsonToken.NUMBER) {
+                reader.skipValue();
+                return null;
+            }
+            double value = reader.nextDouble();
+            // the cast saturates, so values out of range can still be clamped
+            return value == Math.rint(value) ? (int) value : null;
+        }
+
+        @Override
+        public void writeBinary(@NotNull DataOutput out, @NotNull Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        @NotNull
+        public Integer readBinary(@NotNull DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    /**
+     * the codec for {@link BooleanConfigProperty} and its subclasses
+     */
+    public static final PropertyCodec<Boolean> BOOLEAN = new PropertyCodec<>() {
+        @Override
+        public void write(@NotNull JsonWriter writer, @NotNull Boolean value) throws IOException {
+            writer.value(value.booleanValue());
+        }
+
+        @Override
+        @NotNull
+        public Boolean read(@NotNull JsonReader reader) throws IOException {
+            return reader.nextBoolean();
+        }
+
+        @Override
+        @Nullable
+        public Boolean tryRead(@NotNull JsonReader reader) throws IOException {
+            if (reader.peek() != JsonToken.BOOLEAN) {
+                reader.skipValue();
+                return null;
+            }
+            return reader.nextBoolean();
+        }
+
+        @Override
+        public void writeBinary(@NotNull DataOutput out, @NotNull Boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        @Override
+        @NotNull
+        public Boolean readBinary(@NotNull DataInput in) throws IOException {
+            return in.readBoolean();
+        }
+    };
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    /**
+     * the codec for {@link LongConfigProperty} and its subclasses
+     */
+    public static final PropertyCodec<Long> LONG = new PropertyCodec<>() {
+        @Override
+        public void write(@NotNull JsonWriter writer, @NotNull Long value) throws IOException {
+            writer.value(value.longValue());
+        }
+
+        @Override
+        @NotNull
+        public Long read(@NotNull JsonReader reader) throws IOException {
+            return reader.nextLong();
+        }
+
+        @Override
+        @Nullable
+        public Long tryRead(@NotNull JsonReader reader) throws IOException {
+            if (reader.peek() != JsonToken.NUMBER) {
+                reader.skipValue();
+                return null;
+            }
+            BigDecimal value = new BigDecimal(reader.nextString());
+            if (value.signum() != 0 && value.stripTrailingZeros().scale() > 0) {
+                return null;
+            }
+            // saturate, so values out of range can still be clamped
+            return value.max(LONG_MIN).min(LONG_MAX).longValue();
+        }
+
+        @Override
+        public void writeBinary(@NotNull DataOutput out, @NotNull Long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        @NotNull
+        public Long readBinary(@NotNull DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    /**
+     * the codec for {@link DoubleConfigProperty} and its subclasses
+     */
+    public static final PropertyCodec<Double> DOUBLE = new PropertyCodec<>() {
+        @Override
+        public void write(@NotNull JsonWriter writer, @NotNull Double value) throws IOException {
+            writer.value(value.doubleValue());
+        }
+
+        @Override
+        @NotNull
+        public Double read(@NotNull JsonReader reader) throws IOException {
+            return reader.nextDouble();
+        }
+
+        @Override
+        @Nullable
+        public Double tryRead(@NotNull JsonReader reader) throws IOException {
+            if (reader.peek() != JsonToken.NUMBER) {
+                reader.skipValue();
+                return null;
+            }
+            return reader.nextDouble();
+        }
+
+        @Override
+        public void writeBinary(@NotNull DataOutput out, @NotNull Double value) throws IOException {
+            out.writeDouble(value);
+        }
+
+        @Override
+        @NotNull
+        public Double readBinary(@NotNull DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    private static final Map<Class<?>, Function<ConfigProperty<?, ?>, PropertyCodec<?>>> FACTORIES = new ConcurrentHashMap<>();
+
+    static {
+        register(IntConfigProperty.class, INT);
+        register(BooleanConfigProperty.class, BOOLEAN);
+        register(LongConfigProperty.class, LONG);
+        register(DoubleConfigProperty.class, DOUBLE);
+        FACTORIES.put(EnumConfigProperty.class, property -> forEnum(((EnumConfigProperty<?>) property).getEnumClass()));
+    }
+
+    private PropertyCodecs() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Creates a codec writing enum constants by their names, in binary by their ordinals.
+     * @param type the enum type
+     * @return the codec for <code>type</code>
+     */
+    @NotNull
+    public static <E extends Enum<E>> PropertyCodec<E> forEnum(@NotNull Class<E> type) {
+        Objects.requireNonNull(type);
+        Map<String, E> byName = new HashMap<>();
+        for (E constant : type.getEnumConstants()) {
+            byName.put(constant.name(), constant);
+        }
+        return new PropertyCodec<>() {
+            @Override
+            public void write(@NotNull JsonWriter writer, @NotNull E value) throws IOException {
+                writer.value(value.name());
+            }
+
+            @Override
+            @NotNull
+            public E read(@NotNull JsonReader reader) throws IOException {
+                return Enum.valueOf(type, reader.nextString());
+            }
+
+            @Override
+            @Nullable
+            public E tryRead(@NotNull JsonReader reader) throws IOException {
+                if (reader.peek() != JsonToken.STRING) {
+                    reader.skipValue();
+                    return null;
+                }
+                return byName.get(reader.nextString());
+            }
+
+            @Override
+            public void writeBinary(@NotNull DataOutput out, @NotNull E value) throws IOException {
+                out.writeShort(value.ordinal());
+            }
+
+            @Override
+            @NotNull
+            public E readBinary(@NotNull DataInput in) throws IOException {
+                E[] constants = type.getEnumConstants();
+                int ordinal = in.readUnsignedShort();
+                if (ordinal >= constants.length) {
+                    throw new IllegalArgumentException("No constant of " + type.getName() + " with ordinal " + ordinal + "!");
+                }
+                return constants[ordinal];
+            }
+        };
+    }
+
+    /**
+     * Registers a codec factory for the given property class and its subclasses, replacing any previous registration
+     * for exactly that class. Use this variant if the codec depends on the property, else see
+     * {@link #register(Class, PropertyCodec)}.
+     * @param type the property class
+     * @param factory creates the codec for a property, called once per property when its config is initialized
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, P extends ConfigProperty<T, ?>> void register(@NotNull Class<P> type, @NotNull Function<? super P, ? extends PropertyCodec<T>> factory) {
+        Objects.requireNonNull(factory);
+        FACTORIES.put(Objects.requireNonNull(type), property -> factory.apply((P) property));
+    }
+
+    /**
+     * Registers a codec for the given property class and its subclasses, replacing any previous registration
+     * for exactly that class.
+     * @param type the property class
+     * @param codec the codec to use for all properties of that class
+     * @see #register(Class, Function)
+     */
+    public static <T, P extends ConfigProperty<T, ?>> void register(@NotNull Class<P> type, @NotNull PropertyCodec<T> codec) {
+        Objects.requireNonNull(codec);
+        register(type, property -> codec);
+    }
+
+    /**
+     * Resolves the codec for the given property, using the registration of the closest superclass.
+     * @param property the property to resolve the codec for
+     * @return the codec
+     * @throws IllegalStateException If no codec is registered for the class of <code>property</code>.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    static <T> PropertyCodec<T> resolve(@NotNull ConfigProperty<T, ?> property) throws IllegalStateException {
+        for (Class<?> type = property.getClass(); type != null; type = type.getSuperclass()) {
+            Function<ConfigProperty<?, ?>, PropertyCodec<?>> factory = FACTORIES.get(type);
+            if (factory != null) {
+                return (PropertyCodec<T>) Objects.requireNonNull(factory.apply(property));
+            }
+        }
+        throw new IllegalStateException("No codec registered for config property type " + property.getClass().getName() + "!");
+    }
+}
@@ -0,0 +1,382 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single file holding the configs of many mods, one section per {@link AbstractConfig#getNamespace()}.
+ * The file starts with an index of all sections, so a config can load its own section without parsing the others,
+ * and rewriting a section only copies the bytes of the others. Each section holds the same JSON a config would
+ * save to its own file, so existing files can be migrated as they are, see {@link #migrate(AbstractConfig, Path)}.
+ * There is only one store per file in the process, see {@link #get()}, so all mods share it: the file is read once
+ * for all of them and all updated sections are written together when the server stops.
+ */
+public final class SharedConfigStore {
+
+    /**
+     * the name of the store file in the config directory used by {@link #get()}
+     */
+    public static final String DEFAULT_FILE_NAME = "ayusimpleconfig-shared.bin";
+
+    private static final int MAGIC = 0x41594353;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * the stores of this process by absolute file
+     */
+    private static final Map<Path, SharedConfigStore> STORES = new HashMap<>();
+
+    private final Path file;
+
+    /**
+     * sections that were updated but not written yet by namespace
+     */
+    private final Map<String, byte[]> pending = new LinkedHashMap<>();
+
+    /**
+     * the content of the file as last read or written, <code>null</code> if it wasn't read yet
+     */
+    private byte[] content;
+
+    /**
+     * the size and modification time of the file when {@link #content} was read or written,
+     * to notice if the file was changed by someone else meanwhile
+     */
+    private long contentSize;
+
+    private FileTime contentModified;
+
+    private SharedConfigStore(@NotNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the store all mods share, backed by {@link #DEFAULT_FILE_NAME} in the config directory.
+     * @return the shared store
+     * @see #get(Path)
+     */
+    @NotNull
+    public static SharedConfigStore get() {
+        return get(FabricLoader.getInstance().getConfigDir().resolve(DEFAULT_FILE_NAME));
+    }
+
+    /**
+     * Returns the store backed by the given file, which doesn't need to exist yet. All calls with the same file
+     * return the same store, so sections updated by different mods are written together.
+     * Updated sections are written when the server stops, or earlier by {@link #flush()}.
+     * @param file the file of the store
+     * @return the store of that file
+     */
+    @NotNull
+    public static synchronized SharedConfigStore get(@NotNull Path file) {
+        return STORES.computeIfAbsent(file.toAbsolutePath().normalize(), SharedConfigStore::new);
+    }
+
+    /**
+     * Writes the updated sections of all stores. Called once the server is stopping, after the mods had the chance
+     * to update their sections.
+     */
+    static void flushAll() {
+        List<SharedConfigStore> stores;
+        synchronized (SharedConfigStore.class) {
+            stores = new ArrayList<>(STORES.values());
+        }
+        for (SharedConfigStore store : stores) {
+            store.flush();
+        }
+    }
+
+    /**
+     * @return the file of this store
+     */
+    @NotNull
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Loads the given config from its section. Only that section is read.
+     * @param config the config to load
+     * @param server Needed to set the game rule values. Can be <code>null</code>, then the values will only be cached
+     *               but not be available for the game rules.
+     * @throws IllegalStateException If the config hasn't been initialized yet.
+     */
+    public synchronized void load(@NotNull AbstractConfig config, @Nullable MinecraftServer server) throws IllegalStateException {
+        String namespace = config.getNamespace();
+        try {
+            byte[] section = readSection(namespace);
+            if (section == null) {
+                AbstractConfig.LOGGER.warn("No config section for {} found!", namespace);
+                return;
+            }
+            config.loadFrom(new ByteArrayInputStream(section), server);
+        } catch (IOException e) {
+            AbstractConfig.LOGGER.warn("Config section for {} couldn't be read!", namespace);
+        }
+    }
+
+    /**
+     * Updates the section of the given config in memory. All updated sections are written at once when the server
+     * stops, or earlier by {@link #flush()}.
+     * @param config the config to save
+     * @param world Needed to get the most recent game rule values. Can be <code>null</code>, then the cached
+     *              values will be used.
+     * @throws IllegalStateException If the config hasn't been initialized yet.
+     */
+    public synchronized void update(@NotNull AbstractConfig config, @Nullable World world) throws IllegalStateException {
+        StringWriter writer = new StringWriter();
+        try {
+            config.saveTo(writer, world);
+        } catch (IOException e) {
+            // cannot happen for a StringWriter
+            throw new IllegalStateException(e);
+        }
+        pending.put(config.getNamespace(), writer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Saves the given config to its section and writes the file.
+     * @param config the config to save
+     * @param world Needed to get the most recent game rule values. Can be <code>null</code>, then the cached
+     *              values will be used.
+     * @throws IllegalStateException If the config hasn't been initialized yet.
+     * @see #update(AbstractConfig, World)
+     */
+    public synchronized void save(@NotNull AbstractConfig config, @Nullable World world) throws IllegalStateException {
+        update(config, world);
+        flush();
+    }
+
+    /**
+     * Writes all sections updated since the last flush. The other sections are copied without being parsed.
+     * Nothing is written if no section changed. If writing fails, the updated sections are kept for the next flush.
+     * A store file that is corrupted is moved aside with the suffix <code>.corrupt</code> and replaced by a file
+     * holding only the updated sections, so it doesn't break every later flush.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, byte[]> sections = new LinkedHashMap<>();
+        try {
+            byte[] content = content();
+            if (content != null) {
+                readSections(content, sections);
+            }
+        } catch (IOException e) {
+            AbstractConfig.LOGGER.warn("Shared config file {} couldn't be read!", file, e);
+            return;
+        }
+        boolean changed = false;
+        for (Map.Entry<String, byte[]> entry : pending.entrySet()) {
+            changed |= !Arrays.equals(sections.put(entry.getKey(), entry.getValue()), entry.getValue());
+        }
+        if (changed) {
+            try {
+                byte[] encoded = encode(sections);
+                ConfigFiles.writeAtomically(file, encoded);
+                remember(encoded);
+            } catch (IOException e) {
+                AbstractConfig.LOGGER.warn("Shared config file {} couldn't be written!", file, e);
+                return;
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * Reads all sections of the file. If the file is corrupted, it's moved aside and no section is read.
+     * @param content the content of the file
+     * @param sections receives the content of all sections by namespace in file order
+     * @throws IOException If the corrupted file cannot be moved aside.
+     */
+    private void readSections(byte[] content, Map<String, byte[]> sections) throws IOException {
+        try {
+            for (Map.Entry<String, Section> entry : readIndex(content).entrySet()) {
+                sections.put(entry.getKey(), read(content, entry.getValue()));
+            }
+        } catch (IOException e) {
+            Path corrupt = file.resolveSibling(file.getFileName() + ".corrupt");
+            AbstractConfig.LOGGER.warn("Shared config file {} is corrupted and is moved to {}!", file, corrupt, e);
+            Files.move(file, corrupt, StandardCopyOption.REPLACE_EXISTING);
+            this.content = null;
+            sections.clear();
+        }
+    }
+
+    /**
+     * Moves a config file saved by {@link AbstractConfig#saveTo(Path, World)} into this store, unless the store
+     * already has a section for the config. The old file is kept with the suffix <code>.migrated</code>.
+     * @param config the config whose file should be migrated
+     * @param legacyFile the file the config used to be saved to
+     * @return <code>true</code> if the file was migrated
+     * @throws IllegalStateException If the config hasn't been initialized yet.
+     */
+    public synchronized boolean migrate(@NotNull AbstractConfig config, @NotNull Path legacyFile) throws IllegalStateException {
+        String namespace = config.getNamespace();
+        if (!Files.isRegularFile(legacyFile)) {
+            return false;
+        }
+        try {
+            if (readSection(namespace) != null) {
+                return false;
+            }
+            pending.put(namespace, Files.readAllBytes(legacyFile));
+            flush();
+            Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            AbstractConfig.LOGGER.warn("Config file {} couldn't be migrated!", legacyFile);
+            return false;
+        }
+    }
+
+    /**
+     * @param namespace the namespace of a section
+     * @return the content of the section or <code>null</code> if there is no such section
+     * @throws IOException If reading fails.
+     */
+    @Nullable
+    private byte[] readSection(String namespace) throws IOException {
+        byte[] updated = pending.get(namespace);
+        if (updated != null) {
+            return updated;
+        }
+        byte[] content = content();
+        if (content == null) {
+            return null;
+        }
+        Section section = readIndex(content).get(namespace);
+        return section == null ? null : read(content, section);
+    }
+
+    /**
+     * Returns the content of the file, which is only read if it changed since it was last read or written.
+     * This way loading the configs of all mods reads the file once.
+     * @return the content of the file or <code>null</code> if the file doesn't exist
+     * @throws IOException If reading fails.
+     */
+    @Nullable
+    private byte[] content() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            content = null;
+            return null;
+        }
+        if (content == null || Files.size(file) != contentSize || !Files.getLastModifiedTime(file).equals(contentModified)) {
+            remember(Files.readAllBytes(file));
+        }
+        return content;
+    }
+
+    /**
+     * Remembers the content the file was just read or written with.
+     * @param content the content of the file
+     * @throws IOException If the file's attributes cannot be read.
+     */
+    private void remember(byte[] content) throws IOException {
+        this.content = content;
+        contentSize = Files.size(file);
+        contentModified = Files.getLastModifiedTime(file);
+    }
+
+    /**
+     * Reads the index at the start of the file.
+     * @param content the content of the file
+     * @return the sections by namespace in file order
+     * @throws IOException If the file isn't a store.
+     */
+    private Map<String, Section> readIndex(byte[] content) throws IOException {
+        Map<String, Section> index = new LinkedHashMap<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a shared config file: " + file);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            index.put(in.readUTF(), new Section(in.readLong(), in.readInt()));
+        }
+        return index;
+    }
+
+    /**
+     * @param content the content of the file
+     * @param section the section to read
+     * @return the content of the section
+     * @throws IOException If the section lies outside the file.
+     */
+    private static byte[] read(byte[] content, Section section) throws IOException {
+        if (section.offset() < 0 || section.length() < 0 || section.offset() + section.length() > content.length) {
+            throw new IOException("Shared config file ended unexpectedly!");
+        }
+        int offset = (int) section.offset();
+        return Arrays.copyOfRange(content, offset, offset + section.length());
+    }
+
+    /**
+     * @param sections the content of all sections by namespace
+     * @return the content of a store file holding these sections
+     * @throws IOException If encoding fails.
+     */
+    private static byte[] encode(Map<String, byte[]> sections) throws IOException {
+        // offsets have a fixed size, so the size of the index doesn't depend on them
+        long offset = encodeIndex(sections, 0).length;
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(encodeIndex(sections, offset));
+        for (byte[] section : sections.values()) {
+            content.write(section);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * @param sections the content of all sections by namespace
+     * @param offset the position of the first section
+     * @return the index of a store file holding these sections
+     * @throws IOException If encoding fails.
+     */
+    private static byte[] encodeIndex(Map<String, byte[]> sections, long offset) throws IOException {
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(index);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(sections.size());
+        for (Map.Entry<String, byte[]> entry : sections.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(offset);
+            out.writeInt(entry.getValue().length);
+            offset += entry.getValue().length;
+        }
+        out.flush();
+        return index.toByteArray();
+    }
+
+    /**
+     * The position of a section in the file.
+     * @param offset the position of the first byte
+     * @param length the number of bytes
+     */
+    private record Section(long offset, int length) {
+    }
+}
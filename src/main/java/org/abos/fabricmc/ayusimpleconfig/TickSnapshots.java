@@ -0,0 +1,62 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures the tick snapshots of all configs that use them at the start of each server and world tick.
+ * @see AbstractConfig#setTickSnapshots(boolean)
+ */
+final class TickSnapshots {
+
+    /**
+     * the configs that use or used tick snapshots
+     */
+    private static final Set<AbstractConfig> CONFIGS = ConcurrentHashMap.newKeySet();
+
+    private TickSnapshots() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Makes sure the tick snapshots of the given config are captured each tick.
+     * @param config a config that enabled tick snapshots
+     */
+    static void track(@NotNull AbstractConfig config) {
+        CONFIGS.add(config);
+    }
+
+    /**
+     * Called on the server thread at the start of each server tick.
+     * @param server the ticking server
+     */
+    static void onStartTick(@NotNull MinecraftServer server) {
+        for (AbstractConfig config : CONFIGS) {
+            config.captureTickSnapshot(server);
+        }
+    }
+
+    /**
+     * Called on the server thread at the start of each world tick.
+     * @param world the ticking world
+     */
+    static void onStartWorldTick(@NotNull ServerWorld world) {
+        for (AbstractConfig config : CONFIGS) {
+            config.captureTickSnapshot(world);
+        }
+    }
+
+    /**
+     * Drops all tick snapshots, so no world is kept alive after the server stopped.
+     * @param server the stopped server
+     */
+    static void onServerStopped(@NotNull MinecraftServer server) {
+        for (AbstractConfig config : CONFIGS) {
+            config.clearTickSnapshots();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+/**
+ * The result of checking a value without throwing, see {@link ConfigProperty#check(Object)}.
+ */
+public enum ValidationStatus {
+    /**
+     * the value is valid
+     */
+    VALID,
+    /**
+     * the value is smaller than the minimum value of the property
+     */
+    TOO_LOW,
+    /**
+     * the value is greater than the maximum value of the property
+     */
+    TOO_HIGH,
+    /**
+     * the value is invalid for another reason, e.g. it's missing or malformed
+     */
+    INVALID
+}
@@ -0,0 +1,102 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import com.sun.management.ThreadMXBean;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Proves that the unboxed accessors don't allocate, cached as well as rule-backed.
+ * The values are outside of the {@link Integer} cache, so any boxing would show up.
+ */
+class PropertyAllocationTest {
+
+    private static final int READS = 1_000_000;
+
+    /**
+     * the bytes measuring itself may allocate, far less than a single boxed value per read would
+     */
+    private static final long SLACK = 1024;
+
+    /**
+     * larger than any cached {@link Integer} but within the range of {@link Headless.VanillaIntProperty}
+     */
+    private static final int LARGE = 4000;
+
+    /**
+     * receives the results of the reads, so they aren't optimized away
+     */
+    private static volatile long sink;
+
+    private static World world;
+
+    private final IntConfigProperty cachedInt = new IntConfigProperty("cached_int", "test", LARGE, 0, Integer.MAX_VALUE);
+
+    private final BooleanConfigProperty cachedBoolean = new BooleanConfigProperty("cached_boolean", "test", true);
+
+    private final Headless.VanillaIntProperty ruleInt = new Headless.VanillaIntProperty();
+
+    private final Headless.VanillaBooleanProperty ruleBoolean = new Headless.VanillaBooleanProperty();
+
+    @BeforeAll
+    static void bootstrap() {
+        Headless.bootstrap();
+        GameRules rules = new GameRules();
+        rules.get(GameRules.RANDOM_TICK_SPEED).set(LARGE, null);
+        world = Headless.world(rules);
+    }
+
+    /**
+     * @param read the read to measure
+     * @return the bytes allocated by {@link #READS} reads
+     */
+    private static long allocated(LongSupplier read) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sum = 0;
+        // warm up, so class loading and compilation aren't measured
+        for (int i = 0; i < READS; i++) {
+            sum += read.getAsLong();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < READS; i++) {
+            sum += read.getAsLong();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        sink = sum;
+        return allocated;
+    }
+
+    private static void assertNoAllocation(LongSupplier read) {
+        long allocated = allocated(read);
+        assertTrue(allocated <= SLACK, allocated + " bytes allocated by " + READS + " reads");
+    }
+
+    private void initializeConfig() {
+        new Headless.ListConfig(List.of(cachedInt, cachedBoolean, ruleInt, ruleBoolean)).initialize();
+    }
+
+    @Test
+    void cachedReadsDontAllocate() {
+        initializeConfig();
+        assertNoAllocation(() -> cachedInt.getInt());
+        assertNoAllocation(() -> cachedInt.getInt(null));
+        assertNoAllocation(() -> cachedBoolean.getBoolean() ? 1 : 0);
+        assertNoAllocation(() -> cachedBoolean.getBoolean(null) ? 1 : 0);
+    }
+
+    @Test
+    void ruleBackedReadsDontAllocate() {
+        initializeConfig();
+        assertEquals(LARGE, ruleInt.getInt(world));
+        assertNoAllocation(() -> ruleInt.getInt(world));
+        assertNoAllocation(() -> ruleBoolean.getBoolean(world) ? 1 : 0);
+    }
+}
@@ -0,0 +1,128 @@
+package org.abos.fabricmc.ayusimpleconfig;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.implementation.ExceptionMethod;
+import net.bytebuddy.implementation.FixedValue;
+import net.bytebuddy.matcher.ElementMatchers;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import org.objenesis.ObjenesisStd;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Headless stand-ins for the game, so the tests and benchmarks run without a client or server.
+ * Rule-backed properties use vanilla rule keys, as registering new rules needs Fabric's mixins.
+ */
+final class Headless {
+
+    private static boolean bootstrapped;
+
+    private Headless() {
+        /* No instantiation. */
+    }
+
+    /**
+     * Initializes the registries needed to create {@link GameRules}.
+     */
+    static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.createGameVersion();
+            Bootstrap.initialize();
+            bootstrapped = true;
+        }
+    }
+
+    /**
+     * Creates a world that only answers {@link World#getGameRules()}, with a fixed value, and {@link World#isClient()}.
+     * Unlike a mock, it doesn't allocate when called, so it neither hides allocations of the code under test
+     * nor dominates the measured times.
+     * @param rules the game rules the world should have
+     * @return a world stand-in, every other method throws an {@link UnsupportedOperationException}
+     */
+    static World world(GameRules rules) {
+        try {
+            Class<? extends World> type = new ByteBuddy()
+                    .subclass(World.class)
+                    .method(ElementMatchers.isAbstract()).intercept(ExceptionMethod.throwing(UnsupportedOperationException.class))
+                    .method(ElementMatchers.is(World.class.getMethod("getGameRules"))).intercept(FixedValue.value(rules))
+                    .make()
+                    .load(World.class.getClassLoader())
+                    .getLoaded();
+            // skips the constructor, so the world is a server world as far as isClient() is concerned
+            return new ObjenesisStd().newInstance(type);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An int property backed by the vanilla random tick speed rule.
+     */
+    static final class VanillaIntProperty extends IntConfigProperty {
+
+        VanillaIntProperty() {
+            super(GameRules.RANDOM_TICK_SPEED.getName(), null, 3, 0, 4096, GameRules.Category.UPDATES);
+        }
+
+        @Override
+        public GameRules.Key<GameRules.IntRule> registerRule() {
+            return ruleKey = GameRules.RANDOM_TICK_SPEED;
+        }
+    }
+
+    /**
+     * A boolean property backed by the vanilla daylight cycle rule.
+     */
+    static final class VanillaBooleanProperty extends BooleanConfigProperty {
+
+        VanillaBooleanProperty() {
+            super(GameRules.DO_DAYLIGHT_CYCLE.getName(), null, true, GameRules.Category.UPDATES);
+        }
+
+        @Override
+        public GameRules.Key<GameRules.BooleanRule> registerRule() {
+            return ruleKey = GameRules.DO_DAYLIGHT_CYCLE;
+        }
+    }
+
+    /**
+     * A config of the given properties.
+     */
+    static final class ListConfig extends AbstractConfig {
+
+        private final List<ConfigProperty<?, ? extends GameRules.Rule<?>>> properties;
+
+        ListConfig(List<ConfigProperty<?, ? extends GameRules.Rule<?>>> properties) {
+            this.properties = List.copyOf(properties);
+        }
+
+        /**
+         * Creates an initialized config without rules, alternating int and boolean properties.
+         * @param size the number of properties
+         * @return the config
+         */
+        static ListConfig synthetic(int size) {
+            List<ConfigProperty<?, ? extends GameRules.Rule<?>>> properties = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (i % 2 == 0) {
+                    properties.add(new IntConfigProperty("int_property_" + i, "benchmark", i, 0, Integer.MAX_VALUE));
+                } else {
+                    properties.add(new BooleanConfigProperty("boolean_property_" + i, "benchmark", i % 3 == 0));
+                }
+            }
+            ListConfig config = new ListConfig(properties);
+            config.initialize();
+            return config;
+        }
+
+        @Override
+        public Iterator<ConfigProperty<?, ? extends GameRules.Rule<?>>> iterator() {
+            return properties.iterator();
+        }
+    }
+}